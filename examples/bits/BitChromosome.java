@@ -1,19 +1,16 @@
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.ThreadLocalRandom;
-import java.util.stream.IntStream;
 
 /**
- * Chromosome consisting of five bits.
- * The fittest possible chromosome is "11111" and the unfittest "00000"
+ * Chromosome consisting of a fixed amount of bits.
+ * The fittest possible chromosome has every bit set, the unfittest none.
+ * The bits are packed into the long words of a {@link Gene}.
  * Mutating flips a random bit, mateing is crossover at a random pivot point.
  * Created by yay on 12.10.2016.
  */
-public class BitChromosome extends Chromosome {
+public class BitChromosome extends GeneChromosome {
     @Override
-    public Chromosome createChild(List<Number> gene) {
+    public Chromosome createChild(Gene gene) {
         return new BitChromosome(gene);
     }
 
@@ -24,40 +21,66 @@ public class BitChromosome extends Chromosome {
         this(createRandomGene(geneSize,setBits));
     }
 
-    private static List<Number> createRandomGene(int geneSize, int setBits) {
-        List<Number> gene = new ArrayList<>();
-        for(int i = 0; i < geneSize - setBits; i++) {
-            gene.add(new Integer(0));
-        }
-        for(int i = 0; i < setBits; i ++) {
-            gene.add(new Integer(1));
+    /**
+     * Creates a Gene of length geneSize with setBits randomly chosen bits set.
+     */
+    private static Gene createRandomGene(int geneSize, int setBits) {
+        Gene gene = new Gene(geneSize);
+        int set = 0;
+        while (set < setBits) {
+            int i = ThreadLocalRandom.current().nextInt(geneSize);
+            if (!gene.get(i)) {
+                gene.set(i, true);
+                set++;
+            }
         }
-        Collections.shuffle(gene, ThreadLocalRandom.current());
         return gene;
     }
 
+    public BitChromosome(Gene gene) {
+        super(gene);
+    }
+
     /**
-     * Private constructor, only used in mutate
+     * Packs a list of 0 and 1 values.
      *
-     * @param genes Gene representing the new gene.
+     * @param genes list representing the new gene.
      */
     public BitChromosome(List<Number> genes) {
-        super(genes);
+        super(toGene(genes));
     }
 
     /**
-     * Fitness is the amount of 1s set
+     * Fitness is the amount of 1s set, counted with Long.bitCount per word.
      *
      * @return new fitness value, is called in constructor.
      */
     @Override
     protected double calculateFitness() {
-        return getGene().stream().mapToInt((i) -> i.intValue()).sum();
+        return getBitGene().cardinality();
+    }
+
+    /**
+     * Fitness of the parent plus the bits set minus the bits cleared at the changed loci.
+     */
+    @Override
+    protected double calculateFitness(Chromosome parent, ChangedLoci changedLoci) {
+        final Gene gene = getBitGene();
+        final Gene parentGene = ((GeneChromosome) parent).getBitGene();
+        final int count = changedLoci.distinct();
+        double fitness = parent.getFitness();
+        for (int c = 0; c < count; c++) {
+            final int locus = changedLoci.get(c);
+            if (gene.get(locus) != parentGene.get(locus)) {
+                fitness += gene.get(locus) ? 1 : -1;
+            }
+        }
+        return fitness;
     }
 
     @Override
     public String toString(){
-        return Arrays.toString(getGene().toArray());
+        return getGene().toString();
     }
 
 }
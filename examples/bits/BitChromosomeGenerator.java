@@ -0,0 +1,35 @@
+/**
+ * Generator of random {@link BitChromosome} objects with a public no argument constructor,
+ * so it can be named as generator of a {@link ProcessFitnessWorker}:
+ * new ProcessFitnessEvaluation(ProcessFitnessEvaluation.javaWorkerCommand("BitChromosomeGenerator"), workers, 0).
+ * The worker only uses it for a prototype, the gene length is sent with every chunk.
+ */
+public class BitChromosomeGenerator implements FunctionalChromosomeGenerator<BitChromosome> {
+    public static final int DEFAULT_GENE_SIZE = 5;
+    private final int geneSize;
+    private final int setBits;
+
+    /**
+     * Generator of chromosomes of DEFAULT_GENE_SIZE bits, none of them set.
+     */
+    public BitChromosomeGenerator() {
+        this(DEFAULT_GENE_SIZE, 0);
+    }
+
+    /**
+     * @param geneSize amount of bits
+     * @param setBits  amount of randomly chosen bits set
+     */
+    public BitChromosomeGenerator(int geneSize, int setBits) {
+        if (setBits < 0 || setBits > geneSize) {
+            throw new IllegalArgumentException("setBits has to be between 0 and geneSize.");
+        }
+        this.geneSize = geneSize;
+        this.setBits = setBits;
+    }
+
+    @Override
+    public BitChromosome generateRandomChromosome() {
+        return new BitChromosome(geneSize, setBits);
+    }
+}
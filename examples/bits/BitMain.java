@@ -139,7 +139,7 @@ public class BitMain {
         ArrayBlockingQueue<ChromosomeData> sharedBlockingQueue = new ArrayBlockingQueue(10000);
         List<String> idList = new ArrayList<>();
         for (int i = 0; i < runs; i++) {
-            Population population;
+            Population<?> population;
             idList.add(Integer.toString(i));
             population = new BitPopulation(
                     idList.get(i),
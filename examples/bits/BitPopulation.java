@@ -18,7 +18,7 @@ import java.util.stream.IntStream;
  * <p>
  * Created by yay on 12.10.2016.
  */
-public class BitPopulation extends Population {
+public class BitPopulation extends Population<BitChromosome> {
 
     public BitPopulation(String id, int populationSize, int setBits, int geneSize, double mutationRate, double crossoverRate, double elitismRate) {
         this(id, populationSize, mutationRate, crossoverRate, elitismRate, generateRandomChromosome(geneSize, setBits), Population.tournamentSelectMax(3), Population.onePointCrossover(), flipBitMutation(), evolveToMaxAnd10x10Replicate());
@@ -30,7 +30,7 @@ public class BitPopulation extends Population {
             double mutationRate,
             double crossoverRate,
             double elitismRate,
-            FunctionalChromosomeGenerator chromosomeGenerator,
+            FunctionalChromosomeGenerator<BitChromosome> chromosomeGenerator,
             FunctionalSelectionInterface selectionInterface,
             FunctionalCrossoverInterface crossoverInterface,
             FunctionalMutationInterface mutationInterface,
@@ -44,8 +44,8 @@ public class BitPopulation extends Population {
      *
      * @return new {@link BitChromosome},
      */
-    public static FunctionalChromosomeGenerator generateRandomChromosome(int geneSize, int setBits) {
-        return () -> new BitChromosome(geneSize, setBits);
+    public static FunctionalChromosomeGenerator<BitChromosome> generateRandomChromosome(int geneSize, int setBits) {
+        return new BitChromosomeGenerator(geneSize, setBits);
     }
 
     /**
@@ -54,52 +54,122 @@ public class BitPopulation extends Population {
 
     /**
      * Mutation flips random bits with a chance equal to mutationRate parameter.
+     * The Gene is cloned on the first flip, without any flip the chromosome itself is returned.
+     * The fitness of the child is derived from the flipped bits, see Chromosome.deriveFitness().
      *
      * @return
      */
     public static FunctionalMutationInterface flipBitMutation() {
         return (chromosomeList, mutationRate) -> {
-            final List<Number> newGene = chromosomeList.get(0).getGene();
-            for (int i = 0; i < chromosomeList.get(0).getGene().size(); i++) {
+            final GeneChromosome chromosome = (GeneChromosome) chromosomeList.get(0);
+            final Gene gene = chromosome.getBitGene();
+            final ChangedLoci changedLoci = ChangedLoci.get();
+            Gene newGene = null; //cloned on the first flip
+            for (int i = 0; i < gene.getLength(); i++) {
                 if (ThreadLocalRandom.current().nextFloat() < mutationRate) {
-                    newGene.set(i, (newGene.get(i).intValue() == new Integer(1) ? new Integer(0) : new Integer(1)));
+                    if (newGene == null) newGene = gene.clone();
+                    newGene.flip(i);
+                    changedLoci.add(i);
                 }
             }
-            List<Chromosome> returnList = new ArrayList<>();
-            returnList.add(new BitChromosome(newGene));
+            List<Chromosome> returnList = new ArrayList<>(1);
+            if (newGene == null) {
+                returnList.add(chromosome);
+            } else {
+                returnList.add(chromosome.createChild(newGene));
+                returnList.get(0).setParents(chromosome, null);
+                returnList.get(0).deriveFitness(chromosome, changedLoci);
+            }
             return returnList;
         };
     }
 
     public static FunctionalMutationInterface swapMutation() {
         return (chromosomeList, mutationRate) -> {
-            final List<Number> newGene = chromosomeList.get(0).getGene();
-            for (int i = 0; i < chromosomeList.get(0).getGene().size(); i++) {
+            final GeneChromosome chromosome = (GeneChromosome) chromosomeList.get(0);
+            final Gene gene = chromosome.getBitGene();
+            final ChangedLoci changedLoci = ChangedLoci.get();
+            Gene newGene = null; //cloned on the first swap of two different bits
+            for (int i = 0; i < gene.getLength(); i++) {
                 if (ThreadLocalRandom.current().nextFloat() < mutationRate) {
-                    Number temp = newGene.get(i);
-                    int random = ThreadLocalRandom.current().nextInt(chromosomeList.get(0).getGene().size());
-                    newGene.set(i, newGene.get(random));
-                    newGene.set(random, temp);
+                    final Gene current = newGene == null ? gene : newGene;
+                    int random = ThreadLocalRandom.current().nextInt(gene.getLength());
+                    boolean temp = current.get(i);
+                    if (temp != current.get(random)) {
+                        if (newGene == null) newGene = gene.clone();
+                        newGene.set(i, !temp);
+                        newGene.set(random, temp);
+                        changedLoci.add(i);
+                        changedLoci.add(random);
+                    }
                 }
             }
-            List<Chromosome> returnList = new ArrayList<>();
-            returnList.add(new BitChromosome(newGene));
+            List<Chromosome> returnList = new ArrayList<>(1);
+            if (newGene == null) {
+                returnList.add(chromosome);
+            } else {
+                returnList.add(chromosome.createChild(newGene));
+                returnList.get(0).setParents(chromosome, null);
+                returnList.get(0).deriveFitness(chromosome, changedLoci);
+            }
             return returnList;
         };
     }
 
 
+    /**
+     * Uniform crossover of {@link GeneChromosome} parents: every bit is exchanged between the children with a chance of 0.5.
+     * A random mask is drawn one word at a time and applied with Gene.maskedCrossover.
+     *
+     * @return FunctionalCrossoverInterface
+     */
+    public static FunctionalCrossoverInterface uniformCrossover() {
+        return parentChromosomeList -> {
+            final GeneChromosome first = (GeneChromosome) parentChromosomeList.get(0);
+            final GeneChromosome second = (GeneChromosome) parentChromosomeList.get(1);
+            final Gene mask = new Gene(first.getBitGene().getLength());
+            final long[] maskWords = mask.getWords();
+            for (int w = 0; w < maskWords.length; w++) {
+                maskWords[w] = ThreadLocalRandom.current().nextLong();
+            }
+            final Gene[] childGenes = Gene.maskedCrossover(first.getBitGene(), second.getBitGene(), mask);
+            List<Chromosome> children = new ArrayList<>(2);
+            children.add(first.createChild(childGenes[0]));
+            children.add(second.createChild(childGenes[1]));
+            children.get(0).setParents(first, second);
+            children.get(1).setParents(second, first);
+            return children;
+        };
+    }
+
+    /**
+     * Two point crossover. {@link GeneChromosome} parents are crossed on whole words with Gene.twoPointCrossover,
+     * other chromosomes allele by allele.
+     *
+     * @return FunctionalCrossoverInterface
+     */
     public static FunctionalCrossoverInterface twoPointCrossover() {
         return parentChromosomeList -> {
             List<Chromosome> children = new ArrayList<>();
 
-            final List<Number> chromosomeOneGene = parentChromosomeList.get(0).getGene();
-            final List<Number> chromosomeTwoGene = parentChromosomeList.get(1).getGene();
-            final int length = chromosomeOneGene.size();
-
+            final int length = parentChromosomeList.get(0).getGene().size();
             final int index1 = ThreadLocalRandom.current().nextInt(length - 1);
             final int index2 = index1 + ThreadLocalRandom.current().nextInt(length - index1);
 
+            if (parentChromosomeList.get(0) instanceof GeneChromosome) {
+                final GeneChromosome first = (GeneChromosome) parentChromosomeList.get(0);
+                final GeneChromosome second = (GeneChromosome) parentChromosomeList.get(1);
+                final Gene[] childGenes = Gene.twoPointCrossover(first.getBitGene(), second.getBitGene(), index1, index2);
+                children.add(first.createChild(childGenes[0]));
+                children.add(second.createChild(childGenes[1]));
+                children.get(0).setParents(first, second);
+                children.get(1).setParents(second, first);
+                return children;
+            }
+
+            final List<Number> chromosomeOneGene = parentChromosomeList.get(0).getGene();
+            final List<Number> chromosomeTwoGene = parentChromosomeList.get(1).getGene();
+
             final List<Number> newChromosomeOneGene = new ArrayList<Number>();
             final List<Number> newChromosomeTwoGene = new ArrayList<Number>();
 
@@ -118,6 +188,8 @@ public class BitPopulation extends Population {
 
             children.add(parentChromosomeList.get(0).createChild(newChromosomeOneGene));
             children.add(parentChromosomeList.get(1).createChild(newChromosomeTwoGene));
+            children.get(0).setParents(parentChromosomeList.get(0), parentChromosomeList.get(1));
+            children.get(1).setParents(parentChromosomeList.get(1), parentChromosomeList.get(0));
 
             return children;
         };
@@ -132,7 +204,7 @@ public class BitPopulation extends Population {
             double mutationRate,
             double crossoverRate,
             double elitismRate,
-            FunctionalChromosomeGenerator chromosomeGenerator,
+            FunctionalChromosomeGenerator<BitChromosome> chromosomeGenerator,
             FunctionalSelectionInterface selectionInterface,
             FunctionalCrossoverInterface crossoverInterface,
             FunctionalMutationInterface mutationInterface,
@@ -157,7 +229,7 @@ public class BitPopulation extends Population {
                     double generationSum = 0;
                     for (int i = 0; i < getRuns(); i++) {
                         int currentGen = 0;
-                        Population population = createPopulationForMultiThreadCoord3DCallable(
+                        Population<?> population = createPopulationForMultiThreadCoord3DCallable(
                                 mutationRate,
                                 crossoverRate
                         );
@@ -183,7 +255,7 @@ public class BitPopulation extends Population {
             double maxFitness,
             int populationSize,
             double elitismRate,
-            FunctionalChromosomeGenerator chromosomeGenerator,
+            FunctionalChromosomeGenerator<BitChromosome> chromosomeGenerator,
             FunctionalSelectionInterface selectionInterface,
             FunctionalCrossoverInterface crossoverInterface,
             FunctionalMutationInterface mutationInterface,
@@ -196,7 +268,7 @@ public class BitPopulation extends Population {
                     double generationSum = 0;
                     for (int i = 0; i < getRuns(); i++) {
                         int currentGen = 0;
-                        Population population = createPopulationForMultiThreadCoord3DCallable(
+                        Population<?> population = createPopulationForMultiThreadCoord3DCallable(
                                 populationSize,
                                 mutationRate,
                                 crossoverRate,
@@ -256,7 +328,7 @@ public class BitPopulation extends Population {
             double maxFitness,
             int populationSize,
             double elitismRate,
-            FunctionalChromosomeGenerator chromosomeGenerator,
+            FunctionalChromosomeGenerator<BitChromosome> chromosomeGenerator,
             FunctionalSelectionInterface selectionInterface,
             FunctionalCrossoverInterface crossoverInterface,
             FunctionalMutationInterface mutationInterface,
@@ -271,7 +343,7 @@ public class BitPopulation extends Population {
                     double generationSum = 0;
                     double max = 0;
                     for (int i = 0; i < runs; i++) {
-                        Population population = new BitPopulation(
+                        Population<?> population = new BitPopulation(
                                 null,
                                 populationSize,
                                 mutationRate,
@@ -0,0 +1,124 @@
+/**
+ * The k nearest neighbours of every city, nearest first, in one flat array of n * k ints.
+ * Built with a uniform grid of about two cities per cell: the rings of cells around a city are searched
+ * until k neighbours are found that are nearer than any city in the next ring.
+ * Memory and build time stay linear in the amount of cities for evenly spread cities.
+ */
+public class CandidateLists {
+    private final int k;
+    private final int[] neighbours;
+
+    /**
+     * @param problem cities
+     * @param k       amount of neighbours per city, at most the amount of cities - 1
+     */
+    public CandidateLists(SalesmanProblem problem, int k) {
+        final int n = problem.getNumberOfCities();
+        this.k = Math.max(0, Math.min(k, n - 1));
+        this.neighbours = new int[n * this.k];
+        if (this.k == 0) return;
+
+        double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE, maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+        for (int i = 0; i < n; i++) {
+            minX = Math.min(minX, problem.getX(i));
+            maxX = Math.max(maxX, problem.getX(i));
+            minY = Math.min(minY, problem.getY(i));
+            maxY = Math.max(maxY, problem.getY(i));
+        }
+        final int cells = Math.max(1, (int) Math.ceil(Math.sqrt(n / 2.0)));
+        final double cellWidth = maxX > minX ? (maxX - minX) / cells : 1;
+        final double cellHeight = maxY > minY ? (maxY - minY) / cells : 1;
+
+        //counting sort of the cities into the cells
+        final int[] cellOfCity = new int[n];
+        final int[] cellStart = new int[cells * cells + 1];
+        for (int i = 0; i < n; i++) {
+            final int cx = Math.min(cells - 1, (int) ((problem.getX(i) - minX) / cellWidth));
+            final int cy = Math.min(cells - 1, (int) ((problem.getY(i) - minY) / cellHeight));
+            cellOfCity[i] = cy * cells + cx;
+            cellStart[cellOfCity[i] + 1]++;
+        }
+        for (int c = 0; c < cells * cells; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+        final int[] cityOfCell = new int[n];
+        final int[] fill = new int[cells * cells];
+        for (int i = 0; i < n; i++) {
+            cityOfCell[cellStart[cellOfCity[i]] + fill[cellOfCity[i]]++] = i;
+        }
+
+        final double ringDistance = Math.min(cellWidth, cellHeight);
+        final double[] bestDistances = new double[this.k];
+        final int[] best = new int[this.k];
+        for (int city = 0; city < n; city++) {
+            final int cx = cellOfCity[city] % cells;
+            final int cy = cellOfCity[city] / cells;
+            int found = 0;
+            for (int ring = 0; ring <= cells; ring++) {
+                for (int y = Math.max(0, cy - ring); y <= Math.min(cells - 1, cy + ring); y++) {
+                    if (y == cy - ring || y == cy + ring) { //top or bottom row of the ring
+                        for (int x = Math.max(0, cx - ring); x <= Math.min(cells - 1, cx + ring); x++) {
+                            found = scanCell(problem, city, y * cells + x, cellStart, cityOfCell, best, bestDistances, found);
+                        }
+                    } else {
+                        if (cx - ring >= 0) {
+                            found = scanCell(problem, city, y * cells + cx - ring, cellStart, cityOfCell, best, bestDistances, found);
+                        }
+                        if (cx + ring < cells) {
+                            found = scanCell(problem, city, y * cells + cx + ring, cellStart, cityOfCell, best, bestDistances, found);
+                        }
+                    }
+                }
+                final double outside = ring * ringDistance; //no city beyond this ring is nearer than this
+                if (found == this.k && bestDistances[found - 1] <= outside * outside) break;
+            }
+            System.arraycopy(best, 0, neighbours, city * this.k, this.k);
+        }
+    }
+
+    private int scanCell(SalesmanProblem problem, int city, int cell, int[] cellStart, int[] cityOfCell,
+                         int[] best, double[] bestDistances, int found) {
+        for (int c = cellStart[cell]; c < cellStart[cell + 1]; c++) {
+            final int other = cityOfCell[c];
+            if (other == city) continue;
+            final double dx = problem.getX(other) - problem.getX(city);
+            final double dy = problem.getY(other) - problem.getY(city);
+            found = insert(best, bestDistances, found, other, dx * dx + dy * dy);
+        }
+        return found;
+    }
+
+    /**
+     * Inserts into the sorted best list, dropping the farthest if it is full.
+     *
+     * @return new amount of entries
+     */
+    private int insert(int[] best, double[] bestDistances, int found, int city, double distance) {
+        if (found == k && distance >= bestDistances[k - 1]) return found;
+        int i = found == k ? k - 1 : found++;
+        while (i > 0 && bestDistances[i - 1] > distance) {
+            best[i] = best[i - 1];
+            bestDistances[i] = bestDistances[i - 1];
+            i--;
+        }
+        best[i] = city;
+        bestDistances[i] = distance;
+        return found;
+    }
+
+    /**
+     * @return amount of neighbours per city
+     */
+    public int getK() {
+        return k;
+    }
+
+    /**
+     * @param city city
+     * @param j    rank of the neighbour, 0 is the nearest
+     * @return j-th nearest neighbour of the city
+     */
+    public int get(int city, int j) {
+        return neighbours[city * k + j];
+    }
+}
@@ -75,15 +75,9 @@ public class City {
      * @return the distance as a long value.
      */
     public static double distanceFromTo(City c1, City c2) {
-
-        Double x1 = new Double(c1.getX());
-        Double y1 = new Double(c1.getY());
-
-        Double x2 = new Double(c2.getX());
-        Double y2 = new Double(c2.getY());
-        Double line1 = x1 > x2 ? x1 - x2 : x2 - x1;
-        Double line2 = y1 > y2 ? y1 - y2 : y2 - y1;
-        return Math.sqrt(Math.pow(line1, 2) + Math.pow(line2, 2));
+        final double dx = c1.getX() - c2.getX();
+        final double dy = c1.getY() - c2.getY();
+        return Math.sqrt(dx * dx + dy * dy);
     }
 
     /**
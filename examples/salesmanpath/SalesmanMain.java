@@ -8,10 +8,10 @@ import java.util.concurrent.BlockingQueue;
  */
 public class SalesmanMain {
     public static void main(String[] args) {
-        Population p1 = new SalesmanPopulation();
-        Population p2 = new SalesmanPopulation();
+        Population<?> p1 = new SalesmanPopulation();
+        Population<?> p2 = new SalesmanPopulation();
         
-        List<Population> populationList = new ArrayList<>();
+        List<Population<?>> populationList = new ArrayList<>();
         populationList.add(p1);
         populationList.add(p2);
         GeneticDynamicCharting charting = new GeneticDynamicCharting(populationList,10000000);
@@ -4,14 +4,14 @@ import java.util.concurrent.ThreadLocalRandom;
 /**
  * Created by yay on 13.10.2016.
  */
-public class SalesmanPath extends Chromosome {
+public class SalesmanPath extends PermutationChromosome {
     /**
      * Private. Hands off!
      *
      * @param
      */
 
-    private SalesmanPath(List<Number> cityList) {
+    private SalesmanPath(int[] cityList) {
         super(cityList);
     }
 
@@ -19,7 +19,7 @@ public class SalesmanPath extends Chromosome {
     private static int NEIGHBOR_SWAP_MUTATE = 0;
 
     @Override
-    public Chromosome createChild(List<Number> gene) {
+    public Chromosome createChild(int[] gene) {
         return new SalesmanPath(gene);
     }
 
@@ -31,10 +31,10 @@ public class SalesmanPath extends Chromosome {
      * @param numberOfCities
      */
     public SalesmanPath(int numberOfCities) {
-        this(GeneticUtilities.getRandomPath(numberOfCities));
+        this(GeneticUtilities.getRandomIntPath(numberOfCities));
     }
 
-    public SalesmanPath(List<Number> genes, double fitness) {
+    public SalesmanPath(int[] genes, double fitness) {
         super(genes, fitness);
     }
 
@@ -93,16 +93,40 @@ public class SalesmanPath extends Chromosome {
      */
     @Override
     protected double calculateFitness() {
-        double fitness = 0;
-        List<Number> path = getGene();
-        List<City> cityList = new ArrayList<>();
-        for (Number i : path) {
-            cityList.add(SalesmanPopulation.getCity(i.intValue()));
-        }
-        for (int i = 0; i < cityList.size() - 1; i++) {
-            fitness += City.distanceFromTo(cityList.get(i), cityList.get(i + 1));
-        }
+        return SalesmanPopulation.getProblem().pathLength(getIntGene(), getGeneOffset(), getGeneLength());
+    }
 
+    /**
+     * Calculates the distance traveled, but stops once it is longer than the cutoff.
+     *
+     * @return distance, or a partial distance above the cutoff.
+     */
+    @Override
+    protected double calculateFitness(double cutoff) {
+        return SalesmanPopulation.getProblem().pathLength(getIntGene(), getGeneOffset(), getGeneLength(), cutoff);
+    }
+
+    /**
+     * Derives the distance from the parent path: only the edges touching a changed locus are subtracted
+     * with the cities of the parent and added with the cities of this path.
+     *
+     * @return int value of the fitness.
+     */
+    @Override
+    protected double calculateFitness(Chromosome parent, ChangedLoci changedLoci) {
+        final IntChromosome parentPath = (IntChromosome) parent;
+        final SalesmanProblem problem = SalesmanPopulation.getProblem();
+        final int count = changedLoci.distinct();
+        double fitness = parent.getFitness();
+        int lastEdge = -1;
+        for (int c = 0; c < count; c++) {
+            final int locus = changedLoci.get(c);
+            for (int edge = Math.max(locus - 1, lastEdge + 1); edge <= locus && edge < getGeneLength() - 1; edge++) {
+                fitness += problem.distance(getAllele(edge), getAllele(edge + 1))
+                        - problem.distance(parentPath.getAllele(edge), parentPath.getAllele(edge + 1));
+                lastEdge = edge;
+            }
+        }
         return fitness;
     }
 
@@ -119,14 +143,14 @@ public class SalesmanPath extends Chromosome {
      * @return
      */
     private Chromosome mutateNeighborSwap(float mutationRate) {
-        List<Number> path = getGene();
-        for(int i = 1; i < path.size()-1; i++) {
+        int[] path = copyGene();
+        for(int i = 1; i < path.length-1; i++) {
             if(ThreadLocalRandom.current().nextFloat() < mutationRate) {
                 int index1 = i;
                 int index2 = i+1;
-                Number temp = path.get(index1);
-                path.set(index1, path.get(index2));
-                path.set(index2,temp);
+                int temp = path[index1];
+                path[index1] = path[index2];
+                path[index2] = temp;
 
             }
         }
@@ -139,14 +163,14 @@ public class SalesmanPath extends Chromosome {
      * @return
      */
     private Chromosome mutateRandomSwap(float mutationRate) {
-        List<Number> path = getGene();
-        for(int i = 1; i < path.size()-1; i++) {
+        int[] path = copyGene();
+        for(int i = 1; i < path.length-1; i++) {
             if(ThreadLocalRandom.current().nextFloat() < mutationRate) {
                 int index1 = i;
-                int index2 = i+1 + ThreadLocalRandom.current().nextInt(path.size() - i);
-                Number temp = path.get(index1);
-                path.set(index1, path.get(index2));
-                path.set(index2,temp);
+                int index2 = i + 1 + ThreadLocalRandom.current().nextInt(path.length - i - 1);
+                int temp = path[index1];
+                path[index1] = path[index2];
+                path[index2] = temp;
             }
         }
         return new SalesmanPath(path);
@@ -232,6 +256,6 @@ public class SalesmanPath extends Chromosome {
      */
     @Override
     public String toString() {
-        return getGene() + " " +getFitness();
+        return super.toString() + " " +getFitness();
     }
 }
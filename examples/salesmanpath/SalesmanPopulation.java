@@ -4,10 +4,10 @@ import java.util.concurrent.ThreadLocalRandom;
 /**
  * Created by yay on 14.10.2016.
  */
-public class SalesmanPopulation extends Population {
+public class SalesmanPopulation extends Population<SalesmanPath> {
     private static int id;
-    protected final static int CITIES = 15;
-    private final static Map<Integer, City> CITY_HASH_MAP;
+    public final static int DEFAULT_CITIES = 15;
+    private static SalesmanProblem problem;
 
     public static final float DEFAULT_MUTATION_RATE = 0.06f;
     public static final float DEFAULT_CROSSOVER_RATE = 0.65f;
@@ -23,11 +23,35 @@ public class SalesmanPopulation extends Population {
      */
     static {
         id = 0;
-        CITY_HASH_MAP = new HashMap<>();
-        List<City> cityList = City.getRandomListOfCities(CITIES);
-        for (int i = 0; i < CITIES; i++) {
-            CITY_HASH_MAP.put(i, cityList.get(i));
-        }
+        setCities(City.getRandomListOfCities(DEFAULT_CITIES));
+    }
+
+    /**
+     * Replaces the cities to be traveled. City i of the list is allele i of the paths.
+     * Only affects paths created afterwards, so call it before creating a population.
+     *
+     * @param cityList cities to be traveled
+     */
+    public static void setCities(List<City> cityList) {
+        setProblem(new SalesmanProblem(cityList));
+    }
+
+    public static void setProblem(SalesmanProblem salesmanProblem) {
+        problem = salesmanProblem;
+    }
+
+    /**
+     * @return the cities to be traveled, with their distances.
+     */
+    public static SalesmanProblem getProblem() {
+        return problem;
+    }
+
+    /**
+     * @return amount of cities to be traveled, the gene length of the paths.
+     */
+    public static int getNumberOfCities() {
+        return problem.getNumberOfCities();
     }
 
     /**
@@ -42,7 +66,7 @@ public class SalesmanPopulation extends Population {
      * Constructor for SalesmanPopulation. The id and all rates can be customized, and tournamentSize for the tournament selection.
      */
     public SalesmanPopulation(String id, int tournamentSize, int populationSize, double mutationRate, double crossoverRate, double elitismRate) {
-        super(id, populationSize, mutationRate, crossoverRate, elitismRate, generateRandomChromosome(), Population.tournamentSelectMin(tournamentSize), defaultCrossoverInterface(), defaultMutationInterface(), evolveToMax());
+        super(id, populationSize, mutationRate, crossoverRate, elitismRate, generateRandomChromosome(), Population.tournamentSelectMin(tournamentSize), defaultCrossoverInterface(), defaultMutationInterface(), evolveToMin());
         //this.tournamentSize = tournamentSize;
     }
 
@@ -53,7 +77,7 @@ public class SalesmanPopulation extends Population {
             double mutationRate,
             double crossoverRate,
             double elitismRate,
-            FunctionalChromosomeGenerator chromosomeGenerator,
+            FunctionalChromosomeGenerator<SalesmanPath> chromosomeGenerator,
             FunctionalSelectionInterface selectionInterface,
             FunctionalCrossoverInterface crossoverInterface,
             FunctionalMutationInterface mutationInterface,
@@ -68,168 +92,226 @@ public class SalesmanPopulation extends Population {
      *
      * @return
      */
-    protected static FunctionalChromosomeGenerator generateRandomChromosome() {
+    protected static FunctionalChromosomeGenerator<SalesmanPath> generateRandomChromosome() {
         return () -> {
-            return new SalesmanPath(CITIES);
+            return new SalesmanPath(getNumberOfCities());
         };
     }
 
+    /**
+     * Randomized nearest neighbour tours. Starts at city 0 and goes on to one of the three nearest unvisited
+     * candidates of the current city, chosen at random so the tours differ. If all candidates were visited
+     * a random unvisited city is taken. Each step is O(k) instead of O(n).
+     *
+     * @return FunctionalChromosomeGenerator
+     */
+    public static FunctionalChromosomeGenerator<SalesmanPath> nearestNeighbourChromosome() {
+        return () -> {
+            final SalesmanProblem problem = getProblem();
+            final CandidateLists candidates = problem.getCandidates();
+            final int length = problem.getNumberOfCities();
+            final int[] path = new int[length];
+            final int[] unvisited = new int[length];
+            final int[] index = new int[length];
+            for (int i = 0; i < length; i++) {
+                unvisited[i] = index[i] = i;
+            }
+            int unvisitedSize = length;
+            int city = 0;
+            for (int size = 0; ; ) {
+                path[size++] = city;
+                unvisitedSize = visit(city, unvisited, index, unvisitedSize);
+                if (size == length) break;
 
-    private static FunctionalMutationInterface defaultMutationInterface() {
-        return (chromosomeList, mutationRate) -> {
-            List<Number> path = chromosomeList.get(0).getGene();
-            for (int i = 1; i < path.size() - 1; i++) {
-                if (ThreadLocalRandom.current().nextFloat() < mutationRate) {
-                    int index1 = i;
-                    int index2 = i + 1;
-                    Number temp = path.get(index1);
-                    path.set(index1, path.get(index2));
-                    path.set(index2, temp);
-
+                int next = -1;
+                int choices = 0;
+                for (int j = 0; j < candidates.getK() && choices < 3; j++) {
+                    final int candidate = candidates.get(city, j);
+                    if (index[candidate] < unvisitedSize && ThreadLocalRandom.current().nextInt(++choices) == 0) {
+                        next = candidate;
+                    }
                 }
+                city = next >= 0 ? next : unvisited[ThreadLocalRandom.current().nextInt(unvisitedSize)];
             }
-            List<Chromosome> returnList = new ArrayList<>();
-            returnList.add(chromosomeList.get(0).createChild(path));
-            return returnList;
+            return new SalesmanPath(path, problem.pathLength(path, 0, length));
         };
     }
 
-    private static FunctionalCrossoverInterface defaultCrossoverInterface() {
-        return parentChromosomeList -> {
-            List<Chromosome> children = new ArrayList<>();
-
-            List<Number> firstPath = parentChromosomeList.get(0).getGene();
-            List<Number> secondPath = parentChromosomeList.get(1).getGene();
-
-            int index1 = 1 + ThreadLocalRandom.current().nextInt(firstPath.size() - 2);
-            int index2 = index1 + ThreadLocalRandom.current().nextInt(firstPath.size() - index1);
-
-            List<Number> newFirstPath = new ArrayList<>();
-            List<Number> newSecondPath = new ArrayList<>();
-
-            newFirstPath.add(0);
-            newSecondPath.add(0);
-            for (int i = 1; i < firstPath.size(); i++) {
-                newFirstPath.add(null);
-                newSecondPath.add(null);
-            }
+    /**
+     * Removes the city from the unvisited cities in [0, unvisitedSize), swapping the last one into its place.
+     *
+     * @return new unvisitedSize
+     */
+    private static int visit(int city, int[] unvisited, int[] index, int unvisitedSize) {
+        final int last = unvisited[--unvisitedSize];
+        unvisited[index[city]] = last;
+        index[last] = index[city];
+        index[city] = unvisitedSize;
+        return unvisitedSize;
+    }
 
-            List<Number> addedToOne = new ArrayList<>();
-            List<Number> addedToTwo = new ArrayList<>();
-            for (int i = index1; i < index2; i++) {
-                newFirstPath.set(i, secondPath.get(i));
-                addedToOne.add(secondPath.get(i));
-                newSecondPath.set(i, firstPath.get(i));
-                addedToTwo.add(firstPath.get(i));
-            }
 
-            for (int i = 1; i < firstPath.size(); i++) {
-                Number nextPotential = firstPath.get(i);
-                boolean canAdd = true;
-                for (Number b : addedToOne) {
-                    if (b.equals(nextPotential)) {
-                        canAdd = false;
-                    }
-                }
-                if (canAdd) {
-                    for (int j = 1; j < firstPath.size(); j++) {
-                        if (newFirstPath.get(j) == null) {
-                            newFirstPath.set(j, nextPotential);
-                            break;
+    /**
+     * Moves a near city next to the mutated city: for each mutated index a random candidate of its city
+     * is swapped with the city following it. Only the k nearest neighbours are considered, so the moves
+     * mostly shorten the path. Reports the swapped loci, the first city stays.
+     *
+     * @return FunctionalIntDeltaMutationInterface
+     */
+    public static FunctionalIntDeltaMutationInterface candidateSwapMutation() {
+        return (path, offset, length, mutationRate, changedLoci) -> {
+            final CandidateLists candidates = getProblem().getCandidates();
+            if (candidates.getK() == 0) return;
+            int[] position = null; //built on the first mutation
+            for (int i = 1; i < length - 1; i++) {
+                if (ThreadLocalRandom.current().nextFloat() < mutationRate) {
+                    if (position == null) {
+                        position = new int[length];
+                        for (int p = 0; p < length; p++) {
+                            position[path[offset + p]] = p;
                         }
                     }
+                    final int near = candidates.get(path[offset + i], ThreadLocalRandom.current().nextInt(candidates.getK()));
+                    final int j = position[near];
+                    if (j == 0 || j == i + 1 || j == i) continue;
+                    final int next = path[offset + i + 1];
+                    path[offset + i + 1] = near;
+                    path[offset + j] = next;
+                    position[near] = i + 1;
+                    position[next] = j;
+                    changedLoci.add(i + 1);
+                    changedLoci.add(j);
                 }
             }
+        };
+    }
 
-            for (int i = 1; i < firstPath.size(); i++) {
-                Number nextPotential = secondPath.get(i);
-                boolean canAdd = true;
-                for (Number b : addedToTwo) {
-                    if (b == nextPotential) {
-                        canAdd = false;
-                    }
-                }
-                if (canAdd) {
-                    for (int j = 1; j < firstPath.size(); j++) {
-                        if (newSecondPath.get(j) == null) {
-                            newSecondPath.set(j, nextPotential);
-                            break;
-                        }
-                    }
+    /**
+     * Swaps cities with their next neighbour, the first city stays. Reports the swapped loci,
+     * so the distance of the child is derived from the parent by the changed edges only.
+     */
+    private static FunctionalIntDeltaMutationInterface defaultMutationInterface() {
+        return (path, offset, length, mutationRate, changedLoci) -> {
+            for (int i = offset + 1; i < offset + length - 1; i++) {
+                if (ThreadLocalRandom.current().nextFloat() < mutationRate) {
+                    int temp = path[i];
+                    path[i] = path[i + 1];
+                    path[i + 1] = temp;
+                    changedLoci.add(i - offset);
+                    changedLoci.add(i + 1 - offset);
                 }
             }
+        };
+    }
 
-            children.add(parentChromosomeList.get(0).createChild(newFirstPath));
-            children.add(parentChromosomeList.get(1).createChild(newFirstPath));
-            return children;
+    private static FunctionalIntCrossoverInterface defaultCrossoverInterface() {
+        return (first, second, firstChild, firstChildOffset, secondChild, secondChildOffset) -> {
+            final int length = first.getGeneLength();
+            int index1 = 1 + ThreadLocalRandom.current().nextInt(length - 2);
+            int index2 = index1 + ThreadLocalRandom.current().nextInt(length - index1);
+
+            fillPath(second, first, index1, index2, firstChild, firstChildOffset);
+            fillPath(first, second, index1, index2, secondChild, secondChildOffset);
         };
     }
 
+    /**
+     * Copies the sub-route index1..index2 of the segment path into the child,
+     * the rest of the child is filled with the remaining cities in the order of the fill path.
+     * The first city of the child is always 0.
+     */
+    private static void fillPath(IntChromosome segment, IntChromosome fill, int index1, int index2, int[] child, int childOffset) {
+        final int length = segment.getGeneLength();
+        final boolean[] added = new boolean[length];
+        child[childOffset] = 0;
+        added[0] = true;
+        for (int i = index1; i < index2; i++) {
+            int city = segment.getAllele(i);
+            child[childOffset + i] = city;
+            added[city] = true;
+        }
+        int j = 1;
+        for (int i = 1; i < length; i++) {
+            int city = fill.getAllele(i);
+            if (!added[city]) {
+                if (j == index1) j = index2;
+                child[childOffset + j++] = city;
+            }
+        }
+    }
+
+    /**
+     * Greedy crossover. Starts at the first city of the first parent and goes on to the nearer one
+     * of the successors of the current city in both parents. If both were already visited,
+     * the nearest unvisited candidate of the city is taken, or a random unvisited city if there is none.
+     * Successors are found with the position index of the parents,
+     * the unvisited cities are kept in an array with an inverse index, so each step is O(1).
+     *
+     * @return FunctionalCrossoverInterface returning one child
+     */
     public static FunctionalCrossoverInterface greedyCrossover() {
         return parentChromosomeList -> {
-            final List<Number> p1 = parentChromosomeList.get(0).getGene();
-            final List<Number> p2 = parentChromosomeList.get(1).getGene();
+            final PermutationChromosome p1 = (PermutationChromosome) parentChromosomeList.get(0);
+            final PermutationChromosome p2 = (PermutationChromosome) parentChromosomeList.get(1);
+            final int length = p1.getGeneLength();
+            final SalesmanProblem problem = getProblem();
+            final CandidateLists candidates = problem.getCandidates();
+
+            final int[] childGene = new int[length];
+            final int[] unvisited = new int[length]; //unvisited cities in [0, unvisitedSize)
+            final int[] index = new int[length]; //index of each city in unvisited
+            for (int i = 0; i < length; i++) {
+                unvisited[i] = index[i] = i;
+            }
+            int unvisitedSize = length;
 
-            final List<Number> childGene = new ArrayList<>();
-            childGene.add(p1.get(0));
+            int city = p1.getAllele(0);
             double fitness = 0;
-            while (childGene.size() < p1.size()) {
-                Integer c0 = (Integer) childGene.get(childGene.size() - 1);
-                Integer c1 = (Integer) getNextCity(p1, c0);
-                Integer c2 = (Integer) getNextCity(p2, c0);
-                double d1 = City.distanceFromTo(SalesmanPopulation.getCity(c0), SalesmanPopulation.getCity(c1));
-                double d2 = City.distanceFromTo(SalesmanPopulation.getCity(c0), SalesmanPopulation.getCity(c2));
-                if (d1 <= d2) {
-                    childGene.add(c1);
-                    fitness += d1;
+            for (int size = 0; ; ) {
+                childGene[size++] = city;
+                unvisitedSize = visit(city, unvisited, index, unvisitedSize);
+                if (size == length) break;
+
+                final int c1 = p1.successor(city);
+                final int c2 = p2.successor(city);
+                final boolean c1Free = index[c1] < unvisitedSize;
+                final boolean c2Free = index[c2] < unvisitedSize;
+                final int next;
+                if (c1Free && c2Free) {
+                    next = problem.distance(city, c1) <= problem.distance(city, c2) ? c1 : c2;
+                } else if (c1Free) {
+                    next = c1;
+                } else if (c2Free) {
+                    next = c2;
                 } else {
-                    childGene.add(c2);
-                    fitness += d2;
+                    next = nearestUnvisited(candidates, city, index, unvisitedSize, unvisited);
                 }
+                fitness += problem.distance(city, next);
+                city = next;
             }
-            //round trip:
-            fitness += City.distanceFromTo(SalesmanPopulation.getCity((Integer) childGene.get(0)), SalesmanPopulation.getCity((Integer) childGene.get(childGene.size() - 1)));
 
-            List<Chromosome> temp = new ArrayList<>();
-            new ArrayList<>().add(new SalesmanPath(childGene, fitness));
-            return temp;
+            List<Chromosome> children = new ArrayList<>(1);
+            children.add(new SalesmanPath(childGene, fitness));
+            children.get(0).setParents(p1, p2);
+            return children;
         };
     }
 
-    private static Number getNextCity(List<Number> path, Number city) {
-        Number next = null;
-        for (int i = 0; i < path.size(); i++) {
-            if (path.get(i).equals(city)) {
-                next = i == path.size() - 1 ? path.get(0) : path.get(i + 1);
-                break;
-            }
+    private static int nearestUnvisited(CandidateLists candidates, int city, int[] index, int unvisitedSize, int[] unvisited) {
+        for (int j = 0; j < candidates.getK(); j++) {
+            final int candidate = candidates.get(city, j);
+            if (index[candidate] < unvisitedSize) return candidate;
         }
-        return next;
+        return unvisited[ThreadLocalRandom.current().nextInt(unvisitedSize)];
     }
 
-
     /**
-     * Returns the City mapped to the index in CITY_HASH_MAP
+     * Returns the City of an allele.
      *
-     * @param index of the City in the HashMap
+     * @param index of the City
      * @return City Object
      */
     public static City getCity(int index) {
-        return CITY_HASH_MAP.get(index);
+        return problem.getCity(index);
     }
-
-
-    /**
-     * Evolves the population one generation.
-     * First copy over the best n Chromosomes, based on elitism ratio.
-     * Then crossover and mutate the rest based on those ratios.
-     * Lastly, we change the populationArray to the nextGenerationArray
-     * Selection of Parents for crossover and mutation methods or defined in mutate() and selectParents()
-     */
-    @Override
-    public void evolve() {
-        evolveToMin();
-    }
-
-
 }
@@ -0,0 +1,139 @@
+import java.util.List;
+
+/**
+ * Cities of a traveling salesman instance, kept in primitive arrays. City i is allele i of the paths.
+ * Up to matrixLimit cities all distances are precomputed into a packed symmetric triangle of floats,
+ * n * (n - 1) / 2 values, so 4096 cities take 32 MB. Above that they are computed on the fly from the coordinates.
+ * Neither way allocates.
+ * For operators that only look at near cities it offers the k nearest neighbours of every city, see getCandidates().
+ */
+public class SalesmanProblem {
+    public static final int DEFAULT_MATRIX_LIMIT = 4096;
+    public static final int DEFAULT_CANDIDATES = 10;
+
+    private final City[] cities;
+    private final double[] x;
+    private final double[] y;
+    private final float[] triangle;
+    private volatile CandidateLists candidates;
+
+    public SalesmanProblem(List<City> cityList) {
+        this(cityList, DEFAULT_MATRIX_LIMIT);
+    }
+
+    /**
+     * @param cityList    cities to be traveled
+     * @param matrixLimit maximum amount of cities for a precomputed distance matrix
+     */
+    public SalesmanProblem(List<City> cityList, int matrixLimit) {
+        final int n = cityList.size();
+        this.cities = cityList.toArray(new City[n]);
+        this.x = new double[n];
+        this.y = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = cities[i].getX();
+            y[i] = cities[i].getY();
+        }
+        if (n <= matrixLimit) {
+            triangle = new float[(int) ((long) n * (n - 1) / 2)];
+            for (int i = 1; i < n; i++) {
+                final int row = rowStart(i);
+                for (int j = 0; j < i; j++) {
+                    triangle[row + j] = (float) euclidean(i, j);
+                }
+            }
+        } else {
+            triangle = null;
+        }
+    }
+
+    /**
+     * @return distance between city from and city to, from the matrix if there is one.
+     */
+    public double distance(int from, int to) {
+        if (triangle == null) return euclidean(from, to);
+        if (from == to) return 0;
+        return from > to ? triangle[rowStart(from) + to] : triangle[rowStart(to) + from];
+    }
+
+    /**
+     * @return length of the open path through the gene slice, from its first to its last city.
+     */
+    public double pathLength(int[] path, int offset, int length) {
+        double sum = 0;
+        for (int i = offset; i < offset + length - 1; i++) {
+            sum += distance(path[i], path[i + 1]);
+        }
+        return sum;
+    }
+
+    /**
+     * Length of the open path, but stops as soon as the partial length exceeds the cutoff.
+     *
+     * @return length of the path, or a partial length above the cutoff.
+     */
+    public double pathLength(int[] path, int offset, int length, double cutoff) {
+        double sum = 0;
+        for (int i = offset; i < offset + length - 1; i++) {
+            sum += distance(path[i], path[i + 1]);
+            if (sum > cutoff) return sum;
+        }
+        return sum;
+    }
+
+    public int getNumberOfCities() {
+        return cities.length;
+    }
+
+    public City getCity(int index) {
+        return cities[index];
+    }
+
+    public double getX(int index) {
+        return x[index];
+    }
+
+    public double getY(int index) {
+        return y[index];
+    }
+
+    /**
+     * Nearest neighbours of every city, built on the first call with DEFAULT_CANDIDATES per city.
+     *
+     * @return candidate lists
+     */
+    public CandidateLists getCandidates() {
+        if (candidates == null) {
+            synchronized (this) {
+                if (candidates == null) candidates = new CandidateLists(this, DEFAULT_CANDIDATES);
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Rebuilds the candidate lists with k neighbours per city.
+     *
+     * @param k amount of neighbours per city
+     */
+    public void buildCandidates(int k) {
+        candidates = new CandidateLists(this, k);
+    }
+
+    /**
+     * @return true if the distances are precomputed.
+     */
+    public boolean hasMatrix() {
+        return triangle != null;
+    }
+
+    private double euclidean(int from, int to) {
+        final double dx = x[from] - x[to];
+        final double dy = y[from] - y[to];
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    private static int rowStart(int i) {
+        return (int) ((long) i * (i - 1) / 2);
+    }
+}
@@ -0,0 +1,270 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Evaluates the unevaluated chromosomes of a generation asynchronously on an ExecutorService,
+ * for fitness functions with a long tail of evaluation times.
+ *
+ * Every evaluation has a timeout, counted from its start. A timed out chromosome gets the penalty fitness.
+ * Once speculationThreshold of a batch is done, every evaluation running longer than speculationFactor times the median
+ * evaluation time is started a second time, the first result wins and the other attempt is cancelled.
+ * cancel() abandons the running batch: the evaluations still running are cancelled and get the penalty fitness.
+ * The penalty is set with setEstimatedFitness(), it is not cached and no child fitness is derived from it.
+ * Cancelled attempts are interrupted, a fitness function that ignores interrupts runs on, its result is discarded.
+ *
+ * The fitness is calculated by the worker threads and set by the calling thread, so attempts never race on a chromosome.
+ * If a fitness calculation throws, the batch is cancelled and the exception is rethrown.
+ */
+public class AsyncFitnessEvaluation implements FunctionalFitnessBatchInterface {
+    public static final double DEFAULT_SPECULATION_THRESHOLD = 0.9;
+    public static final double DEFAULT_SPECULATION_FACTOR = 2;
+    private static final long CHECK_INTERVAL_MILLIS = 5;
+    private static final ScheduledThreadPoolExecutor TIMER = createTimer();
+
+    private final ExecutorService executor;
+    private final long timeoutNanos;
+    private final double penaltyFitness;
+    private final double speculationThreshold;
+    private final double speculationFactor;
+    private volatile Batch current;
+    private long timeouts;
+    private long speculations;
+
+    /**
+     * Created with Population.asyncEvaluation().
+     *
+     * @param executor             executor the evaluations run on
+     * @param timeoutNanos         maximum time of one evaluation
+     * @param penaltyFitness       fitness of timed out and cancelled chromosomes
+     * @param speculationThreshold fraction of a batch that has to be done before stragglers are started again, above 1 never
+     * @param speculationFactor    an evaluation is a straggler if it runs longer than this times the median evaluation time
+     */
+    AsyncFitnessEvaluation(ExecutorService executor, long timeoutNanos, double penaltyFitness, double speculationThreshold, double speculationFactor) {
+        if (timeoutNanos < 1 || speculationThreshold < 0 || speculationFactor < 1) {
+            throw new IllegalArgumentException("Timeout has to be positive, speculationFactor at least 1.");
+        }
+        this.executor = executor;
+        this.timeoutNanos = timeoutNanos;
+        this.penaltyFitness = penaltyFitness;
+        this.speculationThreshold = speculationThreshold;
+        this.speculationFactor = speculationFactor;
+    }
+
+    private static ScheduledThreadPoolExecutor createTimer() {
+        final ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+            final Thread thread = new Thread(runnable, "fitness-timeout");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer.setRemoveOnCancelPolicy(true);
+        return timer;
+    }
+
+    @Override
+    public void evaluate(List<Chromosome> chromosomeList) {
+        final List<Chromosome> unevaluated = new ArrayList<>(chromosomeList.size());
+        for (Chromosome chromosome : chromosomeList) {
+            if (!chromosome.isEvaluated()) unevaluated.add(chromosome);
+        }
+        if (unevaluated.isEmpty()) return;
+
+        final Batch batch = new Batch(unevaluated);
+        current = batch;
+        for (int i = 0; i < batch.size; i++) {
+            batch.attempts[i][0] = executor.submit(attempt(batch, i, true));
+        }
+        final CompletableFuture<Void> all = CompletableFuture.allOf(batch.results.toArray(new CompletableFuture<?>[0]));
+        try {
+            while (true) {
+                try {
+                    all.get(CHECK_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                    break;
+                } catch (TimeoutException e) {
+                    speculate(batch);
+                }
+            }
+        } catch (InterruptedException e) { //the generation is abandoned
+            cancel(batch);
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            cancel(batch);
+            throw new IllegalStateException("Fitness calculation failed.", e.getCause());
+        } finally {
+            current = null;
+        }
+        for (int i = 0; i < batch.size; i++) {
+            if (batch.isExact(i)) {
+                batch.chromosomes.get(i).setFitness(batch.results.get(i).getNow(penaltyFitness));
+            } else {
+                batch.chromosomes.get(i).setEstimatedFitness(penaltyFitness);
+            }
+        }
+    }
+
+    /**
+     * Cancels the evaluations of the running batch, their chromosomes get the penalty fitness.
+     * Can be called from any thread, the thread in evaluate() returns.
+     */
+    @Override
+    public void cancel() {
+        final Batch batch = current;
+        if (batch != null) cancel(batch);
+    }
+
+    private void cancel(Batch batch) {
+        for (int i = 0; i < batch.size; i++) {
+            if (batch.complete(i, penaltyFitness, false)) {
+                batch.finish(i);
+            }
+        }
+    }
+
+    private Runnable attempt(Batch batch, int i, boolean primary) {
+        return () -> {
+            if (batch.results.get(i).isDone()) return;
+            final long start = System.nanoTime();
+            if (primary) {
+                batch.started.set(i, start);
+                batch.timeouts[i] = TIMER.schedule(() -> timeout(batch, i), timeoutNanos, TimeUnit.NANOSECONDS);
+            }
+            final double fitness;
+            try {
+                fitness = batch.chromosomes.get(i).calculateFitness();
+            } catch (Throwable t) {
+                if (batch.completeExceptionally(i, t)) batch.finish(i);
+                return;
+            }
+            if (batch.complete(i, fitness, true)) {
+                batch.durations.set(i, Math.max(1, System.nanoTime() - batch.started.get(i)));
+                batch.finish(i);
+            }
+        };
+    }
+
+    private void timeout(Batch batch, int i) {
+        if (batch.complete(i, penaltyFitness, false)) {
+            batch.finish(i);
+            synchronized (this) {
+                timeouts++;
+            }
+        }
+    }
+
+    /**
+     * Starts a second attempt of every straggler, once enough of the batch is done.
+     */
+    private void speculate(Batch batch) {
+        if (speculationThreshold > 1) return;
+        int done = 0;
+        final long[] durations = new long[batch.size];
+        int measured = 0;
+        for (int i = 0; i < batch.size; i++) {
+            if (batch.results.get(i).isDone()) done++;
+            if (batch.durations.get(i) > 0) durations[measured++] = batch.durations.get(i);
+        }
+        if (done < speculationThreshold * batch.size || measured == 0) return;
+        Arrays.sort(durations, 0, measured);
+        final long limit = (long) (durations[measured / 2] * speculationFactor);
+        final long now = System.nanoTime();
+        for (int i = 0; i < batch.size; i++) {
+            final long started = batch.started.get(i);
+            if (!batch.results.get(i).isDone() && batch.attempts[i][1] == null && started != 0 && now - started > limit) {
+                batch.attempts[i][1] = executor.submit(attempt(batch, i, false));
+                synchronized (this) {
+                    speculations++;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return amount of timed out evaluations
+     */
+    public synchronized long getTimeouts() {
+        return timeouts;
+    }
+
+    /**
+     * @return amount of evaluations started a second time
+     */
+    public synchronized long getSpeculations() {
+        return speculations;
+    }
+
+    /**
+     * Evaluations of one call of evaluate().
+     */
+    private static class Batch {
+        private static final int PENDING = 0;
+        private static final int EXACT = 1;
+        private static final int PENALIZED = 2;
+        final List<Chromosome> chromosomes;
+        final int size;
+        final List<CompletableFuture<Double>> results;
+        final Future<?>[][] attempts;
+        final ScheduledFuture<?>[] timeouts;
+        final AtomicLongArray started;
+        final AtomicLongArray durations;
+        final AtomicIntegerArray states;
+
+        Batch(List<Chromosome> chromosomes) {
+            this.chromosomes = chromosomes;
+            this.size = chromosomes.size();
+            this.results = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                results.add(new CompletableFuture<>());
+            }
+            this.attempts = new Future<?>[size][2];
+            this.timeouts = new ScheduledFuture<?>[size];
+            this.started = new AtomicLongArray(size);
+            this.durations = new AtomicLongArray(size);
+            this.states = new AtomicIntegerArray(size);
+        }
+
+        /**
+         * Completes evaluation i, if it is not completed yet.
+         * The state is set before the result, so it is known once the result is done.
+         *
+         * @param exact false for the penalty fitness
+         * @return true if this call completed the evaluation
+         */
+        boolean complete(int i, double fitness, boolean exact) {
+            if (!states.compareAndSet(i, PENDING, exact ? EXACT : PENALIZED)) return false;
+            return results.get(i).complete(fitness);
+        }
+
+        boolean completeExceptionally(int i, Throwable t) {
+            if (!states.compareAndSet(i, PENDING, EXACT)) return false;
+            return results.get(i).completeExceptionally(t);
+        }
+
+        /**
+         * @return true if evaluation i was completed by its fitness calculation
+         */
+        boolean isExact(int i) {
+            return states.get(i) == EXACT && results.get(i).isDone();
+        }
+
+        /**
+         * Cancels the attempts and the timeout of a completed evaluation.
+         */
+        void finish(int i) {
+            for (Future<?> attempt : attempts[i]) {
+                if (attempt != null) attempt.cancel(true);
+            }
+            final ScheduledFuture<?> timeout = timeouts[i];
+            if (timeout != null) timeout.cancel(false);
+        }
+    }
+}
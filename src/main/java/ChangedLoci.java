@@ -0,0 +1,64 @@
+import java.util.Arrays;
+
+/**
+ * Loci changed by a mutation, reported to {@link Chromosome#deriveFitness(Chromosome, ChangedLoci)}
+ * so the fitness of the child can be derived from the fitness of its parent.
+ * A locus may be added more than once and in any order, distinct() sorts them and removes the duplicates.
+ * Reused between mutations, see get().
+ */
+public class ChangedLoci {
+    private static final ThreadLocal<ChangedLoci> CURRENT = ThreadLocal.withInitial(ChangedLoci::new);
+
+    private int[] loci = new int[16];
+    private int count;
+
+    /**
+     * @return cleared instance of the current thread
+     */
+    public static ChangedLoci get() {
+        final ChangedLoci changedLoci = CURRENT.get();
+        changedLoci.clear();
+        return changedLoci;
+    }
+
+    public void add(int locus) {
+        if (count == loci.length) loci = Arrays.copyOf(loci, count * 2);
+        loci[count++] = locus;
+    }
+
+    public void clear() {
+        count = 0;
+    }
+
+    /**
+     * @return amount of added loci
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * @param i index, 0 to size() - 1
+     * @return locus i
+     */
+    public int get(int i) {
+        return loci[i];
+    }
+
+    /**
+     * Sorts the loci and removes duplicates.
+     *
+     * @return amount of distinct loci
+     */
+    public int distinct() {
+        Arrays.sort(loci, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || loci[i] != loci[distinct - 1]) {
+                loci[distinct++] = loci[i];
+            }
+        }
+        count = distinct;
+        return count;
+    }
+}
@@ -10,20 +10,30 @@ import java.util.logging.Logger;
 public abstract class Chromosome implements Comparable<Chromosome> {
     private List<Number> gene;
     private double fitness;
+    private boolean evaluated;
+    private boolean fitnessBound;
+    private Chromosome firstParent;
+    private Chromosome secondParent;
 
     /**
      * Default constructor taking a list of Number objects as gene.
-     * Fitness is then calculated.
+     * Fitness is calculated lazily on the first getFitness() call.
      * @param gene
      */
     public Chromosome(List<Number> gene) {
         this.gene = gene;
-        this.fitness = calculateFitness();
     }
 
     public Chromosome(List<Number> gene, double fitness) {
         this.gene = gene;
-        this.fitness = fitness;
+        setFitness(fitness);
+    }
+
+    /**
+     * Constructor for subclasses that keep their gene in their own (primitive) storage.
+     * Fitness is calculated lazily on the first getFitness() call.
+     */
+    protected Chromosome() {
     }
 
     /**
@@ -42,26 +52,154 @@ public abstract class Chromosome implements Comparable<Chromosome> {
     public abstract Chromosome createChild(List<Number> gene);
 
     /**
-     * @return fitness value as int
+     * Returns the fitness value. Calculates it first, if it was not calculated since the gene was set.
+     * Chromosomes handed to other threads should be evaluated first, see evaluate().
+     *
+     * @return fitness value
      */
     public double getFitness() {
+        if (!evaluated) {
+            evaluate();
+        }
         return fitness;
     }
 
     /**
-     * Calculates the fitness value based on the gene, and sets it.
-     * To be implemented by child class. Method is called in constructor.
+     * Calculates and sets the fitness value now, if it was not calculated since the gene was set.
+     * Lets a batch pass evaluate a whole generation in one place, instead of on the first getFitness() call.
+     */
+    public void evaluate() {
+        if (!isEvaluated()) {
+            setFitness(calculateFitness());
+        }
+    }
+
+    /**
+     * Calculates the fitness value now with calculateFitness(cutoff), if it was not calculated since the gene was set.
+     * A value worse than the cutoff may be a bound of the true fitness, see isFitnessBound().
+     *
+     * @param cutoff   worst fitness that can still survive
+     * @param maximize true if a higher fitness is better
+     */
+    public void evaluate(double cutoff, boolean maximize) {
+        if (!isEvaluated()) {
+            final double fitness = calculateFitness(cutoff);
+            setFitness(fitness);
+            fitnessBound = maximize ? fitness < cutoff : fitness > cutoff;
+        }
+    }
+
+    /**
+     * @return true if the fitness value is not the exact fitness: a bound, known to be worse than the cutoff
+     * it was calculated with, or an estimate set with setEstimatedFitness().
+     */
+    public boolean isFitnessBound() {
+        return fitnessBound;
+    }
+
+    /**
+     * @return true if the fitness value is calculated or set.
+     */
+    public boolean isEvaluated() {
+        return evaluated;
+    }
+
+    /**
+     * Marks the fitness value as outdated, it is calculated again on the next getFitness() call.
+     */
+    protected void invalidateFitness() {
+        evaluated = false;
+    }
+
+    /**
+     * Calculates the fitness value based on the gene.
+     * To be implemented by child class. Method is called lazily by getFitness() and evaluate().
      *
      * @return new fitness value.
      */
     protected abstract double calculateFitness();
 
+    /**
+     * Calculates the fitness value, but may stop as soon as it is known to be worse than the cutoff,
+     * and return any value worse than the cutoff, i.e. the partial sum of a minimized additive fitness.
+     * Override for fitness functions that can stop early. The default calculates the exact value.
+     *
+     * @param cutoff worst fitness that can still survive
+     * @return new fitness value, or a value worse than the cutoff.
+     */
+    protected double calculateFitness(double cutoff) {
+        return calculateFitness();
+    }
+
+    /**
+     * Calculates the fitness value of this chromosome, mutated from the evaluated parent at the changed loci only.
+     * Override to derive it from parent.getFitness() in O(changed loci) instead of O(gene length).
+     * The default calculates it from scratch.
+     *
+     * @param parent      evaluated chromosome this one was mutated from, same class and gene length
+     * @param changedLoci loci that may differ from the parent, may contain duplicates
+     * @return new fitness value.
+     */
+    protected double calculateFitness(Chromosome parent, ChangedLoci changedLoci) {
+        return calculateFitness();
+    }
+
+    /**
+     * Sets the fitness value derived from the parent with calculateFitness(parent, changedLoci).
+     * If the parent is not evaluated the fitness stays lazy.
+     * Called by delta mutations, i.e. {@link FunctionalIntDeltaMutationInterface}.
+     *
+     * @param parent      chromosome this one was mutated from
+     * @param changedLoci loci that may differ from the parent
+     */
+    public void deriveFitness(Chromosome parent, ChangedLoci changedLoci) {
+        if (parent.isEvaluated() && !parent.isFitnessBound()) {
+            setFitness(calculateFitness(parent, changedLoci));
+        }
+    }
+
     public void setGene(List<Number> gene) {
         this.gene = gene;
+        invalidateFitness();
     }
 
     public void setFitness(double fitness) {
         this.fitness = fitness;
+        this.evaluated = true;
+        this.fitnessBound = false;
+    }
+
+    /**
+     * Sets a value that stands in for the fitness without being calculated from the gene, i.e. a surrogate prediction.
+     * The chromosome counts as evaluated, but isFitnessBound() is true,
+     * so the value is not cached, not derived from and not kept by elitism or a hall of fame.
+     *
+     * @param fitness estimated fitness value
+     */
+    public void setEstimatedFitness(double fitness) {
+        setFitness(fitness);
+        this.fitnessBound = true;
+    }
+
+    /**
+     * Records the chromosomes this chromosome was created from, read by {@link GenerationHistory}.
+     * Crossover and mutation operators call it on their children.
+     * Population.evolve() clears it on the replaced generation, so no chain of ancestors is kept alive.
+     *
+     * @param firstParent  parent the child was mainly copied from, or null
+     * @param secondParent second parent of a crossover, or null
+     */
+    public void setParents(Chromosome firstParent, Chromosome secondParent) {
+        this.firstParent = firstParent;
+        this.secondParent = secondParent;
+    }
+
+    public Chromosome getFirstParent() {
+        return firstParent;
+    }
+
+    public Chromosome getSecondParent() {
+        return secondParent;
     }
 
     /**
@@ -74,6 +212,7 @@ public abstract class Chromosome implements Comparable<Chromosome> {
      */
     @Override
     public int compareTo(Chromosome chromosome) {
+        final double fitness = getFitness();
         return fitness < chromosome.getFitness() ? -1 : fitness > chromosome.getFitness() ? 1 : 0;
     }
 
@@ -90,9 +229,10 @@ public abstract class Chromosome implements Comparable<Chromosome> {
         }
         Chromosome chromosome = (Chromosome) object;
         List<Number> gene = chromosome.getGene();
-        if(gene.size() != this.gene.size()) return false;
+        List<Number> thisGene = getGene();
+        if(gene.size() != thisGene.size()) return false;
         for(int i =0 ; i < gene.size(); i ++) {
-            if(!this.gene.get(i).equals(gene.get(i))) return false;
+            if(!thisGene.get(i).equals(gene.get(i))) return false;
         }
         return this.getFitness() == chromosome.getFitness();
     }
@@ -104,6 +244,7 @@ public abstract class Chromosome implements Comparable<Chromosome> {
      */
     @Override
     public String toString(){
+        List<Number> gene = getGene();
         StringBuilder sb = new StringBuilder();
         sb.append("[");
         for(int i = 0; i < gene.size(); i++){
@@ -18,6 +18,9 @@ public class ChromosomeData {
     private final String id;
     private final static Map<METHOD, CallMethod> methodMap;
     private int currentGeneration;
+    private Chromosome maxFittest;
+    private Chromosome minFittest;
+    private Double averageFitness;
 
     //not used atm
     public enum METHOD{
@@ -42,6 +45,24 @@ public class ChromosomeData {
         this.currentGeneration = currentGeneration;
     }
 
+    /**
+     * Constructor with the fittest and least fit chromosome tracked by the population, so they are not searched again.
+     */
+    ChromosomeData(String id, List<Chromosome> chromosomeList, int currentGeneration, Chromosome maxFittest, Chromosome minFittest) {
+        this(id, chromosomeList, currentGeneration);
+        this.maxFittest = maxFittest;
+        this.minFittest = minFittest;
+    }
+
+    /**
+     * Constructor with the tracked chromosomes and the average fitness, for lists that can only be read
+     * until the population evolves, see Population.getChromosomeListSnapshot().
+     */
+    ChromosomeData(String id, List<Chromosome> chromosomeList, int currentGeneration, Chromosome maxFittest, Chromosome minFittest, double averageFitness) {
+        this(id, chromosomeList, currentGeneration, maxFittest, minFittest);
+        this.averageFitness = averageFitness;
+    }
+
     /**
      * getter for the chromosome list
      * @return
@@ -63,7 +84,10 @@ public class ChromosomeData {
      * @return
      */
     public Chromosome getMaxFittest() {
-        return Collections.max(chromosomeList);
+        if (maxFittest == null) {
+            maxFittest = Collections.max(chromosomeList);
+        }
+        return maxFittest;
     }
 
     /**
@@ -71,7 +95,7 @@ public class ChromosomeData {
      * @return
      */
     public double getMaxFitnessValue() {
-        return Collections.max(chromosomeList).getFitness();
+        return getMaxFittest().getFitness();
     }
 
     /**
@@ -79,7 +103,10 @@ public class ChromosomeData {
      * @return
      */
     public Chromosome getMinFittest() {
-        return Collections.min(chromosomeList);
+        if (minFittest == null) {
+            minFittest = Collections.min(chromosomeList);
+        }
+        return minFittest;
     }
 
     /**
@@ -87,7 +114,7 @@ public class ChromosomeData {
      * @return
      */
     public double getMinFitnessValue() {
-        return Collections.min(chromosomeList).getFitness();
+        return getMinFittest().getFitness();
     }
 
     /**
@@ -95,10 +122,13 @@ public class ChromosomeData {
      * @return
      */
     public double getAverageFitnessValue() {
-        return chromosomeList
-                .stream()
-                .mapToDouble(Chromosome::getFitness)
-                .average()
-                .getAsDouble();
+        if (averageFitness == null) {
+            averageFitness = chromosomeList
+                    .stream()
+                    .mapToDouble(Chromosome::getFitness)
+                    .average()
+                    .getAsDouble();
+        }
+        return averageFitness;
     }
 }
@@ -0,0 +1,114 @@
+import java.util.List;
+
+/**
+ * Evaluation stage that lets chromosomes doomed to be discarded stop their evaluation early.
+ * The chromosomes are evaluated one after the other with Chromosome.evaluate(cutoff, maximize).
+ * The cutoff is the worst of the best survivorFraction fitness values of the batch seen so far,
+ * the already evaluated chromosomes, i.e. elites, are counted first so the cutoff is tight from the start.
+ * A chromosome worse than the cutoff can not get into the surviving fraction anymore,
+ * its fitness may be a bound of the true fitness, see {@link Chromosome#isFitnessBound()}.
+ *
+ * Use it with evolutions that keep only the best part of a generation, the survivor fraction being that part,
+ * and with fitness functions that override Chromosome.calculateFitness(cutoff), i.e. SalesmanPath.
+ */
+public class CutoffFitnessEvaluation implements FunctionalFitnessBatchInterface {
+    private final boolean maximize;
+    private final double survivorFraction;
+    private long evaluations;
+    private long bounds;
+
+    /**
+     * Created with Population.cutoffEvaluation().
+     *
+     * @param maximize         true if a higher fitness is better
+     * @param survivorFraction fraction of the batch that survives the selection, 0 to 1
+     */
+    CutoffFitnessEvaluation(boolean maximize, double survivorFraction) {
+        if (survivorFraction <= 0 || survivorFraction > 1) {
+            throw new IllegalArgumentException("survivorFraction has to be in (0, 1].");
+        }
+        this.maximize = maximize;
+        this.survivorFraction = survivorFraction;
+    }
+
+    @Override
+    public void evaluate(List<Chromosome> chromosomeList) {
+        final int survivors = Math.max(1, (int) Math.ceil(chromosomeList.size() * survivorFraction));
+        //max heap of the survivors' badness, the fitness turned so that lower is better
+        final double[] heap = new double[survivors];
+        int size = 0;
+        for (Chromosome chromosome : chromosomeList) {
+            if (chromosome.isEvaluated() && !chromosome.isFitnessBound()) {
+                size = offer(heap, size, badness(chromosome.getFitness()));
+            }
+        }
+        long bound = 0;
+        long evaluated = 0;
+        for (Chromosome chromosome : chromosomeList) {
+            if (chromosome.isEvaluated()) continue;
+            final double cutoff = size < survivors ? (maximize ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY) : badness(heap[0]);
+            chromosome.evaluate(cutoff, maximize);
+            evaluated++;
+            if (chromosome.isFitnessBound()) {
+                bound++;
+            } else {
+                size = offer(heap, size, badness(chromosome.getFitness()));
+            }
+        }
+        synchronized (this) {
+            evaluations += evaluated;
+            bounds += bound;
+        }
+    }
+
+    /**
+     * Turns a fitness into a value where lower is better, and back.
+     */
+    private double badness(double fitness) {
+        return maximize ? -fitness : fitness;
+    }
+
+    /**
+     * Keeps the lowest badness values in the max heap.
+     *
+     * @return new size of the heap
+     */
+    private static int offer(double[] heap, int size, double value) {
+        int i;
+        if (size < heap.length) {
+            i = size++;
+            while (i > 0 && heap[(i - 1) >>> 1] < value) {
+                heap[i] = heap[(i - 1) >>> 1];
+                i = (i - 1) >>> 1;
+            }
+            heap[i] = value;
+            return size;
+        }
+        if (value >= heap[0]) return size;
+        i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) break;
+            if (child + 1 < size && heap[child + 1] > heap[child]) child++;
+            if (heap[child] <= value) break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = value;
+        return size;
+    }
+
+    /**
+     * @return amount of chromosomes evaluated by this stage
+     */
+    public synchronized long getEvaluations() {
+        return evaluations;
+    }
+
+    /**
+     * @return amount of chromosomes that stopped at the cutoff, or were worse than it
+     */
+    public synchronized long getBounds() {
+        return bounds;
+    }
+}
@@ -0,0 +1,201 @@
+import java.util.AbstractList;
+import java.util.List;
+
+/**
+ * Chromosome with a gene of primitive double values.
+ * The gene is a slice of a double array (array, offset, length), so the alleles are never boxed.
+ * getGene() returns a read only view of the slice for operators that still work on {@code List<Number>}.
+ *
+ * A chromosome owns its gene and treats it as immutable once it is constructed, so elites, replicas and
+ * unchanged mutation results can share one gene. Operators write into new arrays (copy-on-write), never into a parent.
+ */
+public abstract class DoubleChromosome extends Chromosome {
+    private static final ThreadLocal<double[]> SCRATCH = ThreadLocal.withInitial(() -> new double[0]);
+    private double[] gene;
+    private int offset;
+    private int length;
+
+    /**
+     * Constructor taking an double array as gene. The array is not copied.
+     * Fitness is calculated lazily.
+     *
+     * @param gene double array holding the gene.
+     */
+    public DoubleChromosome(double[] gene) {
+        this(gene, 0, gene.length);
+    }
+
+    /**
+     * Constructor taking a slice of a double array as gene. The array is not copied.
+     * Fitness is calculated lazily.
+     *
+     * @param gene   double array holding the gene.
+     * @param offset index of the first allele in the array.
+     * @param length amount of alleles.
+     */
+    public DoubleChromosome(double[] gene, int offset, int length) {
+        this.gene = gene;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    public DoubleChromosome(double[] gene, double fitness) {
+        this.gene = gene;
+        this.offset = 0;
+        this.length = gene.length;
+        setFitness(fitness);
+    }
+
+    /**
+     * createChild method to create a new Chromosome of the same class as the subclass.
+     *
+     * @param gene double array of the child. Is not copied.
+     * @return new Chromosome
+     */
+    public abstract Chromosome createChild(double[] gene);
+
+    /**
+     * Unboxes the list and passes it to createChild(double[]).
+     *
+     * @param gene
+     * @return new Chromosome
+     */
+    @Override
+    public Chromosome createChild(List<Number> gene) {
+        double[] doubleGene = new double[gene.size()];
+        for (int i = 0; i < doubleGene.length; i++) {
+            doubleGene[i] = gene.get(i).doubleValue();
+        }
+        return createChild(doubleGene);
+    }
+
+    /**
+     * @return Reference to the array holding the gene. Alleles start at getGeneOffset().
+     */
+    public double[] getDoubleGene() {
+        return gene;
+    }
+
+    /**
+     * @return index of the first allele in getDoubleGene().
+     */
+    public int getGeneOffset() {
+        return offset;
+    }
+
+    /**
+     * @return amount of alleles.
+     */
+    public int getGeneLength() {
+        return length;
+    }
+
+    /**
+     * @param i index of the allele
+     * @return value of allele i
+     */
+    public double getAllele(int i) {
+        return gene[offset + i];
+    }
+
+    /**
+     * @return new array holding a copy of the gene.
+     */
+    public double[] copyGene() {
+        double[] copy = new double[length];
+        System.arraycopy(gene, offset, copy, 0, length);
+        return copy;
+    }
+
+    /**
+     * Copies the gene into a scratch array of the current thread, which is reused by the next call on that thread.
+     * Lets operators try a change without allocating, and copy only if something changed.
+     *
+     * @return scratch array holding a copy of the gene starting at index 0
+     */
+    double[] copyGeneToScratch() {
+        double[] scratch = SCRATCH.get();
+        if (scratch.length < length) {
+            scratch = new double[length];
+            SCRATCH.set(scratch);
+        }
+        System.arraycopy(gene, offset, scratch, 0, length);
+        return scratch;
+    }
+
+    /**
+     * @param other       array holding the other gene
+     * @param otherOffset index of the first allele of the other gene
+     * @return true if the other gene has the same alleles as this gene
+     */
+    public boolean geneEquals(double[] other, int otherOffset) {
+        for (int i = 0; i < length; i++) {
+            if (gene[offset + i] != other[otherOffset + i]) return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return read only List view of the gene.
+     */
+    @Override
+    public List<Number> getGene() {
+        return new DoubleGeneList();
+    }
+
+    /**
+     * Unboxes the list into a new double array.
+     *
+     * @param gene
+     */
+    @Override
+    public void setGene(List<Number> gene) {
+        double[] doubleGene = new double[gene.size()];
+        for (int i = 0; i < doubleGene.length; i++) {
+            doubleGene[i] = gene.get(i).doubleValue();
+        }
+        setGene(doubleGene, 0, doubleGene.length);
+    }
+
+    /**
+     * Sets a new slice as gene. The array is not copied.
+     *
+     * @param gene   double array holding the gene.
+     * @param offset index of the first allele in the array.
+     * @param length amount of alleles.
+     */
+    protected void setGene(double[] gene, int offset, int length) {
+        this.gene = gene;
+        this.offset = offset;
+        this.length = length;
+        invalidateFitness();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("[");
+        for (int i = 0; i < length; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(gene[offset + i]);
+        }
+        sb.append("]");
+        return sb.toString();
+    }
+
+    /**
+     * List view of the gene slice. Boxes on every access.
+     */
+    private class DoubleGeneList extends AbstractList<Number> {
+        @Override
+        public Number get(int index) {
+            if (index < 0 || index >= length) throw new IndexOutOfBoundsException();
+            return gene[offset + index];
+        }
+
+        @Override
+        public int size() {
+            return length;
+        }
+    }
+}
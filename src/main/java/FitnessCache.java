@@ -0,0 +1,395 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrent cache of fitness values keyed by the gene, shared by any number of threads and populations
+ * of the same problem. Duplicate genes (replicas, converged populations) are then evaluated only once.
+ *
+ * Entries are found by a 64-bit fingerprint of the gene and verified against a copy of the gene,
+ * so a fingerprint collision never returns a wrong fitness. The cache is bounded by an amount of entries
+ * and optionally by the bytes of the stored genes, and evicts with the CLOCK algorithm (second chance).
+ * It is split into segments with one lock each, selected by the fingerprint.
+ *
+ * cached() puts the cache in front of any {@link FunctionalFitnessBatchInterface}.
+ */
+public class FitnessCache {
+    private static final int SEGMENTS = 16;
+    private static final int ENTRY_OVERHEAD_BYTES = 64;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param maxEntries maximum amount of cached fitness values
+     */
+    public FitnessCache(int maxEntries) {
+        this(maxEntries, Long.MAX_VALUE);
+    }
+
+    /**
+     * @param maxEntries maximum amount of cached fitness values
+     * @param maxBytes   maximum size of the stored genes in bytes, approximately
+     */
+    public FitnessCache(int maxEntries, long maxBytes) {
+        if (maxEntries < 1 || maxBytes < 1) {
+            throw new IllegalArgumentException("FitnessCache needs room for at least one entry.");
+        }
+        final int entriesPerSegment = Math.max(1, (maxEntries + SEGMENTS - 1) / SEGMENTS);
+        final long bytesPerSegment = maxBytes == Long.MAX_VALUE ? Long.MAX_VALUE : Math.max(1, maxBytes / SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(entriesPerSegment, bytesPerSegment);
+        }
+    }
+
+    /**
+     * Sets the cached fitness on the chromosome, if its gene is cached.
+     *
+     * @param chromosome chromosome to look up
+     * @return true on a hit
+     */
+    public boolean lookup(Chromosome chromosome) {
+        final long hash = fingerprint(chromosome);
+        final Segment segment = segmentOf(hash);
+        final boolean hit;
+        synchronized (segment) {
+            final int slot = segment.find(hash, chromosome);
+            hit = slot >= 0;
+            if (hit) {
+                segment.referenced[slot] = true;
+                chromosome.setFitness(segment.fitness[slot]);
+            }
+        }
+        if (hit) hits.increment();
+        else misses.increment();
+        return hit;
+    }
+
+    /**
+     * Caches the fitness of an evaluated chromosome. A copy of its gene is stored.
+     * Do not put chromosomes with a bound or estimated fitness, see Chromosome.isFitnessBound().
+     *
+     * @param chromosome evaluated chromosome
+     */
+    public void put(Chromosome chromosome) {
+        final long hash = fingerprint(chromosome);
+        final Object gene = copyGene(chromosome);
+        final Segment segment = segmentOf(hash);
+        synchronized (segment) {
+            if (segment.find(hash, chromosome) < 0) {
+                evictions.add(segment.insert(hash, chromosome.getClass(), gene, chromosome.getFitness()));
+            }
+        }
+    }
+
+    /**
+     * Puts the cache in front of an evaluation stage. Cached genes get their fitness from the cache,
+     * of the remaining chromosomes only one per distinct gene is passed on to the evaluation,
+     * the others copy its result. The new results are cached.
+     *
+     * @param evaluation evaluation of the misses, i.e. Population.parallelEvaluation()
+     * @return FunctionalFitnessBatchInterface
+     */
+    public FunctionalFitnessBatchInterface cached(FunctionalFitnessBatchInterface evaluation) {
+        return new FunctionalFitnessBatchInterface() {
+            @Override
+            public void evaluate(List<Chromosome> chromosomeList) {
+                evaluateCached(chromosomeList, evaluation);
+            }
+
+            @Override
+            public void cancel() {
+                evaluation.cancel();
+            }
+        };
+    }
+
+    private void evaluateCached(List<Chromosome> chromosomeList, FunctionalFitnessBatchInterface evaluation) {
+        final List<Chromosome> distinct = new ArrayList<>();
+        final List<Chromosome> duplicates = new ArrayList<>();
+        final Map<Long, Chromosome> firstOfHash = new HashMap<>();
+        for (Chromosome chromosome : chromosomeList) {
+            if (chromosome.isEvaluated() || lookup(chromosome)) continue;
+            final Chromosome first = firstOfHash.putIfAbsent(fingerprint(chromosome), chromosome);
+            if (first != null && first != chromosome && sameGene(first, chromosome)) {
+                duplicates.add(chromosome);
+            } else if (first != chromosome) {
+                distinct.add(chromosome);
+            }
+        }
+        evaluation.evaluate(distinct);
+        for (Chromosome chromosome : distinct) {
+            if (!chromosome.isFitnessBound()) put(chromosome);
+        }
+        for (Chromosome chromosome : duplicates) {
+            final Chromosome first = firstOfHash.get(fingerprint(chromosome));
+            if (first.isFitnessBound()) { //not exact, the duplicate must not pass it on as exact
+                chromosome.setEstimatedFitness(first.getFitness());
+            } else {
+                chromosome.setFitness(first.getFitness());
+            }
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return hits / (hits + misses), 0 if nothing was looked up yet
+     */
+    public double getHitRate() {
+        final long hits = getHits();
+        final long total = hits + getMisses();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * @return amount of cached fitness values
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size;
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        return "FitnessCache{size=" + size() + ", hits=" + getHits() + ", misses=" + getMisses() + ", evictions=" + getEvictions() + "}";
+    }
+
+    private Segment segmentOf(long hash) {
+        return segments[(int) (hash >>> 60) & (SEGMENTS - 1)];
+    }
+
+    /**
+     * 64-bit fingerprint of the gene, computed on the primitive storage of the chromosome without copying it.
+     *
+     * @param chromosome chromosome
+     * @return fingerprint
+     */
+    public static long fingerprint(Chromosome chromosome) {
+        long hash = 0x9E3779B97F4A7C15L;
+        if (chromosome instanceof IntChromosome) {
+            final IntChromosome c = (IntChromosome) chromosome;
+            for (int i = 0; i < c.getGeneLength(); i++) hash = mix(hash, c.getAllele(i));
+            return finish(hash, c.getGeneLength());
+        }
+        if (chromosome instanceof GeneChromosome) {
+            final Gene gene = ((GeneChromosome) chromosome).getBitGene();
+            for (long word : gene.getWords()) hash = mix(hash, word);
+            return finish(hash, gene.getLength());
+        }
+        if (chromosome instanceof DoubleChromosome) {
+            final DoubleChromosome c = (DoubleChromosome) chromosome;
+            for (int i = 0; i < c.getGeneLength(); i++) hash = mix(hash, Double.doubleToLongBits(c.getAllele(i)));
+            return finish(hash, c.getGeneLength());
+        }
+        final List<Number> gene = chromosome.getGene();
+        for (Number allele : gene) hash = mix(hash, Double.doubleToLongBits(allele.doubleValue()));
+        return finish(hash, gene.size());
+    }
+
+    private static long mix(long hash, long value) {
+        return Long.rotateLeft(hash ^ (value * 0xC2B2AE3D27D4EB4FL), 31) * 0x9E3779B97F4A7C15L;
+    }
+
+    private static long finish(long hash, int length) {
+        hash ^= length;
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        return hash ^ (hash >>> 33);
+    }
+
+    /**
+     * @return copy of the gene as int[], long[] (words of a Gene, followed by the length) or double[]
+     */
+    private static Object copyGene(Chromosome chromosome) {
+        if (chromosome instanceof IntChromosome) {
+            return ((IntChromosome) chromosome).copyGene();
+        }
+        if (chromosome instanceof GeneChromosome) {
+            final Gene gene = ((GeneChromosome) chromosome).getBitGene();
+            final long[] words = java.util.Arrays.copyOf(gene.getWords(), gene.getWords().length + 1);
+            words[words.length - 1] = gene.getLength();
+            return words;
+        }
+        if (chromosome instanceof DoubleChromosome) {
+            return ((DoubleChromosome) chromosome).copyGene();
+        }
+        final List<Number> gene = chromosome.getGene();
+        final double[] copy = new double[gene.size()];
+        for (int i = 0; i < copy.length; i++) copy[i] = gene.get(i).doubleValue();
+        return copy;
+    }
+
+    private static long bytesOf(Object gene) {
+        if (gene instanceof int[]) return 16 + 4L * ((int[]) gene).length + ENTRY_OVERHEAD_BYTES;
+        if (gene instanceof long[]) return 16 + 8L * ((long[]) gene).length + ENTRY_OVERHEAD_BYTES;
+        return 16 + 8L * ((double[]) gene).length + ENTRY_OVERHEAD_BYTES;
+    }
+
+    /**
+     * Compares a stored copy with the gene of the chromosome, without copying the gene.
+     */
+    private static boolean matches(Object stored, Chromosome chromosome) {
+        if (chromosome instanceof IntChromosome) {
+            final IntChromosome c = (IntChromosome) chromosome;
+            return stored instanceof int[] && ((int[]) stored).length == c.getGeneLength() && c.geneEquals((int[]) stored, 0);
+        }
+        if (chromosome instanceof GeneChromosome) {
+            final Gene gene = ((GeneChromosome) chromosome).getBitGene();
+            final long[] words = gene.getWords();
+            if (!(stored instanceof long[]) || ((long[]) stored).length != words.length + 1) return false;
+            final long[] storedWords = (long[]) stored;
+            if (storedWords[words.length] != gene.getLength()) return false;
+            for (int i = 0; i < words.length; i++) {
+                if (storedWords[i] != words[i]) return false;
+            }
+            return true;
+        }
+        if (chromosome instanceof DoubleChromosome) {
+            final DoubleChromosome c = (DoubleChromosome) chromosome;
+            if (!(stored instanceof double[]) || ((double[]) stored).length != c.getGeneLength()) return false;
+            final double[] storedGene = (double[]) stored;
+            for (int i = 0; i < storedGene.length; i++) {
+                if (Double.doubleToLongBits(storedGene[i]) != Double.doubleToLongBits(c.getAllele(i))) return false;
+            }
+            return true;
+        }
+        final List<Number> gene = chromosome.getGene();
+        if (!(stored instanceof double[]) || ((double[]) stored).length != gene.size()) return false;
+        final double[] storedGene = (double[]) stored;
+        for (int i = 0; i < storedGene.length; i++) {
+            if (Double.doubleToLongBits(storedGene[i]) != Double.doubleToLongBits(gene.get(i).doubleValue())) return false;
+        }
+        return true;
+    }
+
+    static boolean sameGene(Chromosome first, Chromosome second) {
+        return first.getClass() == second.getClass() && matches(copyGene(first), second);
+    }
+
+    /**
+     * Fixed amount of slots, chained by bucket. Slots are reused through a free list and the clock hand.
+     * All methods are called with the segment locked.
+     */
+    private static final class Segment {
+        final long[] hashes;
+        final Object[] genes;
+        final Class<?>[] classes;
+        final double[] fitness;
+        final boolean[] referenced;
+        final int[] next;
+        final int[] buckets;
+        final int[] free;
+        final long maxBytes;
+        int freeCount;
+        int size;
+        int hand;
+        long bytes;
+
+        Segment(int capacity, long maxBytes) {
+            this.hashes = new long[capacity];
+            this.genes = new Object[capacity];
+            this.classes = new Class<?>[capacity];
+            this.fitness = new double[capacity];
+            this.referenced = new boolean[capacity];
+            this.next = new int[capacity];
+            this.buckets = new int[Integer.highestOneBit(Math.max(1, capacity - 1)) << 1];
+            this.free = new int[capacity];
+            this.maxBytes = maxBytes;
+            for (int slot = 0; slot < capacity; slot++) {
+                free[freeCount++] = capacity - 1 - slot;
+            }
+        }
+
+        int find(long hash, Chromosome chromosome) {
+            for (int slot = buckets[bucketOf(hash)] - 1; slot >= 0; slot = next[slot] - 1) {
+                if (hashes[slot] == hash && classes[slot] == chromosome.getClass() && matches(genes[slot], chromosome)) {
+                    return slot;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * @return amount of evicted entries
+         */
+        int insert(long hash, Class<?> type, Object gene, double value) {
+            int evicted = 0;
+            final long entryBytes = bytesOf(gene);
+            while (freeCount == 0 || (bytes + entryBytes > maxBytes && size > 0)) {
+                evict();
+                evicted++;
+            }
+            final int slot = free[--freeCount];
+            hashes[slot] = hash;
+            genes[slot] = gene;
+            classes[slot] = type;
+            fitness[slot] = value;
+            referenced[slot] = false;
+            final int bucket = bucketOf(hash);
+            next[slot] = buckets[bucket];
+            buckets[bucket] = slot + 1;
+            bytes += entryBytes;
+            size++;
+            return evicted;
+        }
+
+        /**
+         * Moves the clock hand to the first slot not referenced since the last pass, clearing the references on the way.
+         */
+        private void evict() {
+            while (true) {
+                final int slot = hand;
+                hand = hand + 1 == genes.length ? 0 : hand + 1;
+                if (genes[slot] == null) continue;
+                if (referenced[slot]) {
+                    referenced[slot] = false;
+                    continue;
+                }
+                remove(slot);
+                return;
+            }
+        }
+
+        private void remove(int slot) {
+            final int bucket = bucketOf(hashes[slot]);
+            if (buckets[bucket] == slot + 1) {
+                buckets[bucket] = next[slot];
+            } else {
+                int previous = buckets[bucket] - 1;
+                while (next[previous] != slot + 1) previous = next[previous] - 1;
+                next[previous] = next[slot];
+            }
+            bytes -= bytesOf(genes[slot]);
+            genes[slot] = null;
+            classes[slot] = null;
+            free[freeCount++] = slot;
+            size--;
+        }
+
+        private int bucketOf(long hash) {
+            return (int) hash & (buckets.length - 1);
+        }
+    }
+}
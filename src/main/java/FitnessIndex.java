@@ -0,0 +1,217 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Rank index over a primitive fitness array.
+ * The fitness values are turned into 64 bit keys that sort like the doubles (IEEE-754 bit pattern, sign handled),
+ * ascending() sorts them with a stable LSD radix sort, O(n), best() finds the top k with quickselect, O(n + k log k).
+ * An ordered list of chromosomes is only built by sort() or sorted(), when it is needed.
+ */
+public class FitnessIndex {
+    private static final int DIGIT_BITS = 11;
+    private static final int DIGITS = (64 + DIGIT_BITS - 1) / DIGIT_BITS;
+    private static final int RADIX = 1 << DIGIT_BITS;
+    private static final int INSERTION_SORT_LIMIT = 48;
+
+    private final double[] fitness;
+    private final int size;
+    private int[] ascending;
+
+    /**
+     * @param fitness fitness values, index i holds the fitness of chromosome i, not copied
+     * @param size    amount of valid fitness values
+     */
+    public FitnessIndex(double[] fitness, int size) {
+        this.fitness = fitness;
+        this.size = size;
+    }
+
+    /**
+     * @return index over the fitness values of the list
+     */
+    public static FitnessIndex of(List<Chromosome> chromosomeList) {
+        final double[] fitness = new double[chromosomeList.size()];
+        for (int i = 0; i < fitness.length; i++) {
+            fitness[i] = chromosomeList.get(i).getFitness();
+        }
+        return new FitnessIndex(fitness, fitness.length);
+    }
+
+    /**
+     * Sorts the list ascending by fitness, like Collections.sort(), but with a radix sort of the fitness values.
+     * Stable, chromosomes of equal fitness keep their order.
+     *
+     * @param chromosomeList list to sort
+     */
+    public static void sort(List<Chromosome> chromosomeList) {
+        final int[] order = of(chromosomeList).ascending();
+        final Chromosome[] sorted = new Chromosome[order.length];
+        for (int r = 0; r < order.length; r++) {
+            sorted[r] = chromosomeList.get(order[r]);
+        }
+        for (int r = 0; r < sorted.length; r++) {
+            chromosomeList.set(r, sorted[r]);
+        }
+    }
+
+    /**
+     * @return indexes ascending by fitness, computed on the first call. Do not modify.
+     */
+    public int[] ascending() {
+        if (ascending == null) {
+            final long[] keys = new long[size];
+            final int[] indexes = new int[size];
+            for (int i = 0; i < size; i++) {
+                keys[i] = key(fitness[i]);
+                indexes[i] = i;
+            }
+            sort(keys, indexes, size);
+            ascending = indexes;
+        }
+        return ascending;
+    }
+
+    /**
+     * @param amount   amount of indexes
+     * @param maximize true if the highest fitness is the best
+     * @return new array of the indexes of the amount best fitness values, best first
+     */
+    public int[] best(int amount, boolean maximize) {
+        amount = Math.min(amount, size);
+        final int[] best = new int[amount];
+        if (amount == 0) return best;
+        if (ascending != null) {
+            for (int r = 0; r < amount; r++) {
+                best[r] = maximize ? ascending[size - 1 - r] : ascending[r];
+            }
+            return best;
+        }
+        final long[] keys = new long[size];
+        final int[] indexes = new int[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = maximize ? ~key(fitness[i]) : key(fitness[i]); //the best has the lowest key
+            indexes[i] = i;
+        }
+        select(keys, indexes, size, amount);
+        sort(keys, indexes, amount);
+        System.arraycopy(indexes, 0, best, 0, amount);
+        return best;
+    }
+
+    /**
+     * @return new list of the chromosomes ascending by fitness
+     */
+    public List<Chromosome> sorted(List<Chromosome> chromosomeList) {
+        final int[] order = ascending();
+        final List<Chromosome> sorted = new ArrayList<>(order.length);
+        for (int index : order) {
+            sorted.add(chromosomeList.get(index));
+        }
+        return sorted;
+    }
+
+    /**
+     * Key that compares unsigned like Double.compare() compares the values: negative values get all bits flipped,
+     * positive values only the sign bit.
+     */
+    static long key(double value) {
+        final long bits = Double.doubleToLongBits(value);
+        return bits ^ ((bits >> 63) | Long.MIN_VALUE);
+    }
+
+    /**
+     * Stable sort of the first size keys, unsigned, moving the indexes along.
+     */
+    static void sort(long[] keys, int[] indexes, int size) {
+        if (size <= INSERTION_SORT_LIMIT) {
+            insertionSort(keys, indexes, size);
+            return;
+        }
+        final int[][] counts = new int[DIGITS][RADIX];
+        for (int i = 0; i < size; i++) {
+            final long key = keys[i];
+            for (int d = 0; d < DIGITS; d++) {
+                counts[d][(int) (key >>> (d * DIGIT_BITS)) & (RADIX - 1)]++;
+            }
+        }
+        long[] fromKeys = keys;
+        int[] fromIndexes = indexes;
+        long[] toKeys = new long[size];
+        int[] toIndexes = new int[size];
+        for (int d = 0; d < DIGITS; d++) {
+            final int[] count = counts[d];
+            final int shift = d * DIGIT_BITS;
+            if (count[(int) (fromKeys[0] >>> shift) & (RADIX - 1)] == size) continue; //all keys share this digit
+            int offset = 0;
+            for (int digit = 0; digit < RADIX; digit++) {
+                final int amount = count[digit];
+                count[digit] = offset;
+                offset += amount;
+            }
+            for (int i = 0; i < size; i++) {
+                final int position = count[(int) (fromKeys[i] >>> shift) & (RADIX - 1)]++;
+                toKeys[position] = fromKeys[i];
+                toIndexes[position] = fromIndexes[i];
+            }
+            final long[] swapKeys = fromKeys;
+            fromKeys = toKeys;
+            toKeys = swapKeys;
+            final int[] swapIndexes = fromIndexes;
+            fromIndexes = toIndexes;
+            toIndexes = swapIndexes;
+        }
+        if (fromKeys != keys) {
+            System.arraycopy(fromKeys, 0, keys, 0, size);
+            System.arraycopy(fromIndexes, 0, indexes, 0, size);
+        }
+    }
+
+    private static void insertionSort(long[] keys, int[] indexes, int size) {
+        for (int i = 1; i < size; i++) {
+            final long key = keys[i];
+            final int index = indexes[i];
+            int j = i - 1;
+            while (j >= 0 && Long.compareUnsigned(keys[j], key) > 0) {
+                keys[j + 1] = keys[j];
+                indexes[j + 1] = indexes[j];
+                j--;
+            }
+            keys[j + 1] = key;
+            indexes[j + 1] = index;
+        }
+    }
+
+    /**
+     * Quickselect: moves the amount lowest keys, unsigned, to the front, in no order.
+     */
+    static void select(long[] keys, int[] indexes, int size, int amount) {
+        int low = 0;
+        int high = size - 1;
+        while (low < high) {
+            final long pivot = keys[low + ThreadLocalRandom.current().nextInt(high - low + 1)];
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (Long.compareUnsigned(keys[i], pivot) < 0) i++;
+                while (Long.compareUnsigned(keys[j], pivot) > 0) j--;
+                if (i <= j) {
+                    swap(keys, indexes, i++, j--);
+                }
+            }
+            //keys[low..j] <= pivot <= keys[i..high]
+            if (amount - 1 <= j) high = j;
+            else if (amount - 1 >= i) low = i;
+            else return;
+        }
+    }
+
+    private static void swap(long[] keys, int[] indexes, int a, int b) {
+        final long key = keys[a];
+        keys[a] = keys[b];
+        keys[b] = key;
+        final int index = indexes[a];
+        indexes[a] = indexes[b];
+        indexes[b] = index;
+    }
+}
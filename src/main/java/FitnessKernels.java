@@ -0,0 +1,64 @@
+/**
+ * Hot loops of bit and real valued fitness functions and operators.
+ * This is the Java 8 version with plain loops. The multi-release jar holds a Java 17 version in META-INF/versions/17
+ * that uses the Vector API (jdk.incubator.vector) if the JVM was started with --add-modules jdk.incubator.vector,
+ * and falls back to the plain loops otherwise. The vectorized sums may differ from the plain ones in the last bits.
+ */
+public final class FitnessKernels {
+
+    private FitnessKernels() {
+    }
+
+    /**
+     * @return true if the Vector API implementations are used.
+     */
+    public static boolean isVectorized() {
+        return false;
+    }
+
+    /**
+     * @param words packed bits
+     * @return amount of set bits
+     */
+    public static int popcount(long[] words) {
+        return ScalarFitnessKernels.popcount(words);
+    }
+
+    /**
+     * @param first  packed bits
+     * @param second packed bits, at least as many words as first
+     * @return amount of differing bits
+     */
+    public static int hammingDistance(long[] first, long[] second) {
+        return ScalarFitnessKernels.hammingDistance(first, second);
+    }
+
+    /**
+     * Uniform crossover on packed bits: where the mask is set the children get the bit of the other parent.
+     * All arrays have the length of first.
+     */
+    public static void maskedCrossover(long[] first, long[] second, long[] mask, long[] firstChild, long[] secondChild) {
+        ScalarFitnessKernels.maskedCrossover(first, second, mask, firstChild, secondChild);
+    }
+
+    /**
+     * @return sum of gene[offset + i] * weights[i] over all weights
+     */
+    public static double weightedSum(double[] gene, int offset, double[] weights) {
+        return ScalarFitnessKernels.weightedSum(gene, offset, weights);
+    }
+
+    /**
+     * @return sphere function, sum of the squared alleles
+     */
+    public static double sphere(double[] gene, int offset, int length) {
+        return ScalarFitnessKernels.sphere(gene, offset, length);
+    }
+
+    /**
+     * @return Rastrigin function, 10 * length + sum of x * x - 10 * cos(2 * pi * x)
+     */
+    public static double rastrigin(double[] gene, int offset, int length) {
+        return ScalarFitnessKernels.rastrigin(gene, offset, length);
+    }
+}
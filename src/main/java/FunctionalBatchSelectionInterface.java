@@ -0,0 +1,51 @@
+import java.util.List;
+
+/**
+ * Parent selection of a whole generation in one pass.
+ * Pair p mates the parents at index 2 * p and 2 * p + 1 of the returned array,
+ * so mating can be split across threads by ranges of pairs.
+ */
+@FunctionalInterface
+public interface FunctionalBatchSelectionInterface {
+    /**
+     * Populations from this size on fill the index array in parallel.
+     */
+    int PARALLEL_THRESHOLD = 1 << 14;
+
+    /**
+     * Fills the first 2 * pairs indexes of parents, so the array can be reused every generation.
+     *
+     * @param fitness fitness values, index i holds the fitness of chromosome i
+     * @param size    amount of valid fitness values
+     * @param parents array receiving the chromosome indexes, at least 2 * pairs long
+     * @param pairs   amount of parent pairs
+     */
+    void selectParents(double[] fitness, int size, int[] parents, int pairs);
+
+    /**
+     * @param fitness fitness values, index i holds the fitness of chromosome i
+     * @param size    amount of valid fitness values
+     * @param pairs   amount of parent pairs
+     * @return new array of 2 * pairs chromosome indexes
+     */
+    default int[] selectParents(double[] fitness, int size, int pairs) {
+        final int[] parents = new int[2 * pairs];
+        selectParents(fitness, size, parents, pairs);
+        return parents;
+    }
+
+    /**
+     * Copies the fitness values of the list into an array once and selects on it.
+     *
+     * @param chromosomeList list of chromosomes
+     * @param pairs          amount of parent pairs
+     * @return new array of 2 * pairs chromosome indexes
+     */
+    default int[] selectParents(List<Chromosome> chromosomeList, int pairs) {
+        final double[] fitness = new double[chromosomeList.size()];
+        for (int i = 0; i < fitness.length; i++) {
+            fitness[i] = chromosomeList.get(i).getFitness();
+        }
+        return selectParents(fitness, fitness.length, pairs);
+    }
+}
@@ -1,7 +1,9 @@
 /**
  * Created by yay on 23.10.2016.
+ *
+ * @param <C> class of the generated chromosomes
  */
 @FunctionalInterface
-public interface FunctionalChromosomeGenerator {
-    Chromosome generateRandomChromosome();
+public interface FunctionalChromosomeGenerator<C extends Chromosome> {
+    C generateRandomChromosome();
 }
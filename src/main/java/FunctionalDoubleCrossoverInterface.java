@@ -0,0 +1,45 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Crossover on {@link DoubleChromosome} genes without boxing.
+ * Can be passed everywhere a {@link FunctionalCrossoverInterface} is expected.
+ */
+@FunctionalInterface
+public interface FunctionalDoubleCrossoverInterface extends FunctionalCrossoverInterface {
+
+    /**
+     * Writes the genes of the two children into the child arrays, starting at the given offsets.
+     * The parents must not be modified.
+     *
+     * @param first             first parent
+     * @param second            second parent
+     * @param firstChild        array for the gene of the first child
+     * @param firstChildOffset  index of the first allele of the first child
+     * @param secondChild       array for the gene of the second child
+     * @param secondChildOffset index of the first allele of the second child
+     */
+    void crossover(DoubleChromosome first, DoubleChromosome second, double[] firstChild, int firstChildOffset, double[] secondChild, int secondChildOffset);
+
+    /**
+     * Crosses the first two chromosomes of the list, which have to be {@link DoubleChromosome} objects.
+     *
+     * @param parentChromosomeList list of parents
+     * @return list with the two children
+     */
+    @Override
+    default List<Chromosome> crossover(List<Chromosome> parentChromosomeList) {
+        final DoubleChromosome first = (DoubleChromosome) parentChromosomeList.get(0);
+        final DoubleChromosome second = (DoubleChromosome) parentChromosomeList.get(1);
+        final double[] firstChild = new double[first.getGeneLength()];
+        final double[] secondChild = new double[second.getGeneLength()];
+        crossover(first, second, firstChild, 0, secondChild, 0);
+
+        List<Chromosome> children = new ArrayList<>(2);
+        children.add(first.createChild(firstChild));
+        children.add(second.createChild(secondChild));
+        children.get(0).setParents(first, second);
+        children.get(1).setParents(second, first);
+        return children;
+    }
+}
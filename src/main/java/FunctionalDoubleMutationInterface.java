@@ -0,0 +1,48 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Mutation on {@link DoubleChromosome} genes without boxing.
+ * Can be passed everywhere a {@link FunctionalMutationInterface} is expected.
+ */
+@FunctionalInterface
+public interface FunctionalDoubleMutationInterface extends FunctionalMutationInterface {
+
+    /**
+     * Mutates the gene slice in place.
+     *
+     * @param gene         array holding the gene
+     * @param offset       index of the first allele
+     * @param length       amount of alleles
+     * @param mutationRate rate of mutation
+     */
+    void mutate(double[] gene, int offset, int length, double mutationRate);
+
+    /**
+     * Mutates a copy of the gene of the first chromosome, which has to be an {@link DoubleChromosome}.
+     * The copy is made in a scratch array, if the mutation changed nothing the chromosome itself is returned,
+     * so unchanged chromosomes cost no allocation and no fitness calculation. The chromosome is never modified.
+     *
+     * @param chromosomeList list with the chromosome to mutate
+     * @param mutationRate   rate of mutation
+     * @return list with the mutated child, or the chromosome itself
+     */
+    @Override
+    default List<Chromosome> mutate(List<Chromosome> chromosomeList, double mutationRate) {
+        final DoubleChromosome chromosome = (DoubleChromosome) chromosomeList.get(0);
+        final int length = chromosome.getGeneLength();
+        final double[] scratch = chromosome.copyGeneToScratch();
+        mutate(scratch, 0, length, mutationRate);
+
+        List<Chromosome> returnList = new ArrayList<>(1);
+        if (chromosome.geneEquals(scratch, 0)) {
+            returnList.add(chromosome);
+        } else {
+            final Chromosome child = chromosome.createChild(Arrays.copyOf(scratch, length));
+            child.setParents(chromosome, null);
+            returnList.add(child);
+        }
+        return returnList;
+    }
+}
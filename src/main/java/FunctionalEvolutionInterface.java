@@ -5,13 +5,34 @@ import java.util.List;
  */
 @FunctionalInterface
 public interface FunctionalEvolutionInterface {
+    /**
+     * Evolves the chromosomeList one generation.
+     * The new chromosomes have to be evaluated with the fitnessBatchInterface before their fitness is used.
+     */
     List<Chromosome> evolve(
             List<Chromosome> chromosomeList,
             FunctionalCrossoverInterface crossoverInterface,
             FunctionalSelectionInterface selectionInterface,
             FunctionalMutationInterface mutationInterface,
+            FunctionalFitnessBatchInterface fitnessBatchInterface,
             double elitismRate,
             double crossoverRate,
             double mutationRate
     );
+
+    /**
+     * Evolves with sequential evaluation.
+     */
+    default List<Chromosome> evolve(
+            List<Chromosome> chromosomeList,
+            FunctionalCrossoverInterface crossoverInterface,
+            FunctionalSelectionInterface selectionInterface,
+            FunctionalMutationInterface mutationInterface,
+            double elitismRate,
+            double crossoverRate,
+            double mutationRate
+    ) {
+        return evolve(chromosomeList, crossoverInterface, selectionInterface, mutationInterface,
+                Population.sequentialEvaluation(), elitismRate, crossoverRate, mutationRate);
+    }
 }
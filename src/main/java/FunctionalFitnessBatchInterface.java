@@ -0,0 +1,18 @@
+import java.util.List;
+
+/**
+ * Evaluation stage of a generation.
+ * Receives a whole generation and calculates the fitness of all chromosomes that are not evaluated yet,
+ * see {@link Chromosome#isEvaluated()}. Already evaluated chromosomes are left alone.
+ */
+@FunctionalInterface
+public interface FunctionalFitnessBatchInterface {
+    void evaluate(List<Chromosome> chromosomeList);
+
+    /**
+     * Abandons the running evaluate() call, if the stage supports it. Called from another thread,
+     * i.e. by GeneticProducer.shutdown(). Stages wrapping another stage pass it on.
+     */
+    default void cancel() {
+    }
+}
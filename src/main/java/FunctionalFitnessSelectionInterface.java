@@ -0,0 +1,72 @@
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Parent selection that only needs the fitness values, read from a flat double array.
+ * Can be passed everywhere a {@link FunctionalSelectionInterface} is expected.
+ * Selects a whole generation of parents at once with selectParents().
+ */
+@FunctionalInterface
+public interface FunctionalFitnessSelectionInterface extends FunctionalSelectionInterface, FunctionalBatchSelectionInterface {
+
+    /**
+     * @param fitness fitness values, index i holds the fitness of chromosome i
+     * @param size    amount of valid fitness values
+     * @return index of the selected chromosome
+     */
+    int select(double[] fitness, int size);
+
+    /**
+     * Copies the fitness values of the list into an array and selects on it.
+     *
+     * @param chromosomeList list of chromosomes
+     * @return index of the selected chromosome
+     */
+    @Override
+    default int select(List<Chromosome> chromosomeList) {
+        final double[] fitness = new double[chromosomeList.size()];
+        for (int i = 0; i < fitness.length; i++) {
+            fitness[i] = chromosomeList.get(i).getFitness();
+        }
+        return select(fitness, fitness.length);
+    }
+
+    /**
+     * Prepares the generation once and fills the index array with select() calls on it,
+     * in parallel from PARALLEL_THRESHOLD indexes on.
+     */
+    @Override
+    default void selectParents(double[] fitness, int size, int[] parents, int pairs) {
+        final FunctionalFitnessSelectionInterface generation = forGeneration(fitness, size);
+        if (2 * pairs >= PARALLEL_THRESHOLD) {
+            IntStream.range(0, 2 * pairs).parallel().forEach(i -> parents[i] = generation.select(fitness, size));
+        } else {
+            for (int i = 0; i < 2 * pairs; i++) {
+                parents[i] = generation.select(fitness, size);
+            }
+        }
+    }
+
+    /**
+     * Called once per generation with its fitness values, before the parents are selected from it.
+     *
+     * @param fitness fitness values, not changed until the next call
+     * @param size    amount of valid fitness values
+     * @return selection to use for this generation, this by default
+     */
+    default FunctionalFitnessSelectionInterface forGeneration(double[] fitness, int size) {
+        return this;
+    }
+
+    /**
+     * Copies the fitness values of the list into an array once and prepares the generation on it.
+     */
+    @Override
+    default FunctionalSelectionInterface forGeneration(List<Chromosome> chromosomeList) {
+        final double[] fitness = new double[chromosomeList.size()];
+        for (int i = 0; i < fitness.length; i++) {
+            fitness[i] = chromosomeList.get(i).getFitness();
+        }
+        return forGeneration(fitness, fitness.length);
+    }
+}
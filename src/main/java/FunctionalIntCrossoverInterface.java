@@ -0,0 +1,45 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Crossover on {@link IntChromosome} genes without boxing.
+ * Can be passed everywhere a {@link FunctionalCrossoverInterface} is expected.
+ */
+@FunctionalInterface
+public interface FunctionalIntCrossoverInterface extends FunctionalCrossoverInterface {
+
+    /**
+     * Writes the genes of the two children into the child arrays, starting at the given offsets.
+     * The parents must not be modified.
+     *
+     * @param first             first parent
+     * @param second            second parent
+     * @param firstChild        array for the gene of the first child
+     * @param firstChildOffset  index of the first allele of the first child
+     * @param secondChild       array for the gene of the second child
+     * @param secondChildOffset index of the first allele of the second child
+     */
+    void crossover(IntChromosome first, IntChromosome second, int[] firstChild, int firstChildOffset, int[] secondChild, int secondChildOffset);
+
+    /**
+     * Crosses the first two chromosomes of the list, which have to be {@link IntChromosome} objects.
+     *
+     * @param parentChromosomeList list of parents
+     * @return list with the two children
+     */
+    @Override
+    default List<Chromosome> crossover(List<Chromosome> parentChromosomeList) {
+        final IntChromosome first = (IntChromosome) parentChromosomeList.get(0);
+        final IntChromosome second = (IntChromosome) parentChromosomeList.get(1);
+        final int[] firstChild = new int[first.getGeneLength()];
+        final int[] secondChild = new int[second.getGeneLength()];
+        crossover(first, second, firstChild, 0, secondChild, 0);
+
+        List<Chromosome> children = new ArrayList<>(2);
+        children.add(first.createChild(firstChild));
+        children.add(second.createChild(secondChild));
+        children.get(0).setParents(first, second);
+        children.get(1).setParents(second, first);
+        return children;
+    }
+}
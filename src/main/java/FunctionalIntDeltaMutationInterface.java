@@ -0,0 +1,57 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Mutation on {@link IntChromosome} genes that reports the loci it changed.
+ * The fitness of the child is then derived from the fitness of the parent with
+ * {@link Chromosome#deriveFitness(Chromosome, ChangedLoci)}, in O(changed loci) if the chromosome overrides
+ * calculateFitness(parent, changedLoci).
+ */
+@FunctionalInterface
+public interface FunctionalIntDeltaMutationInterface extends FunctionalIntMutationInterface {
+
+    /**
+     * Mutates the gene slice in place and adds every changed index (relative to offset) to changedLoci.
+     *
+     * @param gene         array holding the gene
+     * @param offset       index of the first allele
+     * @param length       amount of alleles
+     * @param mutationRate rate of mutation
+     * @param changedLoci  receives the changed loci
+     */
+    void mutate(int[] gene, int offset, int length, double mutationRate, ChangedLoci changedLoci);
+
+    @Override
+    default void mutate(int[] gene, int offset, int length, double mutationRate) {
+        mutate(gene, offset, length, mutationRate, ChangedLoci.get());
+    }
+
+    /**
+     * Mutates a copy of the gene of the first chromosome in a scratch array. Without changed loci the chromosome
+     * itself is returned, otherwise a child whose fitness is derived from the chromosome.
+     *
+     * @param chromosomeList list with the chromosome to mutate
+     * @param mutationRate   rate of mutation
+     * @return list with the mutated child, or the chromosome itself
+     */
+    @Override
+    default List<Chromosome> mutate(List<Chromosome> chromosomeList, double mutationRate) {
+        final IntChromosome chromosome = (IntChromosome) chromosomeList.get(0);
+        final int length = chromosome.getGeneLength();
+        final int[] scratch = chromosome.copyGeneToScratch();
+        final ChangedLoci changedLoci = ChangedLoci.get();
+        mutate(scratch, 0, length, mutationRate, changedLoci);
+
+        List<Chromosome> returnList = new ArrayList<>(1);
+        if (changedLoci.size() == 0) {
+            returnList.add(chromosome);
+        } else {
+            final Chromosome child = chromosome.createChild(Arrays.copyOf(scratch, length));
+            child.setParents(chromosome, null);
+            child.deriveFitness(chromosome, changedLoci);
+            returnList.add(child);
+        }
+        return returnList;
+    }
+}
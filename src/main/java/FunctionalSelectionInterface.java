@@ -8,4 +8,14 @@ import java.util.List;
 public interface FunctionalSelectionInterface {
      int select(List<Chromosome> chromosomeList);
 
+     /**
+      * Called once per generation, before the parents are selected from it.
+      * Selections that need a table over the whole generation build it here, instead of on every select() call.
+      *
+      * @param chromosomeList generation the parents are selected from, not changed until the next call
+      * @return selection to use for this generation, this by default
+      */
+     default FunctionalSelectionInterface forGeneration(List<Chromosome> chromosomeList) {
+          return this;
+     }
 }
@@ -1,25 +1,16 @@
-
-
-import java.nio.ByteBuffer;
-import java.nio.IntBuffer;
-import java.nio.LongBuffer;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.BitSet;
-import java.util.List;
-/**
- * NOT USED AT THIS POINT
- */
 
 /**
  * Created by yay on 12.10.2016.
- * Class that holds the genetic information. BitSet uses less memory than byte[] array but has no fixed size.
+ * Class that holds the genetic information as a fixed length string of bits.
  *
- * This Class uses BitSet together with a size variable.
+ * The bits are packed into a long array, bit i is stored in word i / 64 at position i % 64.
+ * Bits after length in the last word are always 0, so counting and comparing can work on whole words.
  */
-@Deprecated
 public class Gene {
 
-    private final BitSet bitSet;
+    private final long[] words;
     private final int length;
     private static final String INDEX_OUT_OF_BOUNDS_STRING =
             "Index out of bounds. Can't be >= length.";
@@ -30,69 +21,51 @@ public class Gene {
      * @param s String to be converted to bits. Length will be Number of bits in the String. length % 8 == 0 is guaranteed.
      */
     public Gene(String s) {
-        this(BitSet.valueOf(s.getBytes()), s.getBytes().length * 8);
+        this(s.getBytes());
     }
 
     /**
-     * Gene Constructor from a long array.
+     * Gene Constructor from a long array. The array is copied.
      *
      * @param longArray
      */
     public Gene(long[] longArray) {
-        this.bitSet = BitSet.valueOf(longArray);
-        this.length = 64 * longArray.length;
+        this(longArray.clone(), 64 * longArray.length, true);
     }
 
     /**
      * Gene Constructor from a double array.
-     * Converts the double array to a long array, then uses the BitSet.valueOf method.
+     * Converts each double to its long bits and uses them as words.
      *
      * @param doubleArray array of doubles.
      */
     public Gene(double[] doubleArray) {
-        List<Long> longList = new ArrayList<>();
-        for (double d : doubleArray) {
-            longList.add(Double.doubleToLongBits(d));
-        }
-        long[] longArray = new long[doubleArray.length];
+        this(new long[doubleArray.length], 64 * doubleArray.length, true);
         for (int i = 0; i < doubleArray.length; i++) {
-            longArray[i] = longList.get(i).longValue();
+            words[i] = Double.doubleToLongBits(doubleArray[i]);
         }
-        this.bitSet = BitSet.valueOf(longArray);
-        this.length = 64 * longArray.length;
     }
 
     /**
      * Creates a new Gene from an int array.
-     * Converts the int array to a byte array, and passes that to the BitSet.valueOf(byte[] bytes) method.
+     * Int i is stored in the bits i * 32 until i * 32 + 31.
+     *
      * @param intArray array of int values
      */
     public Gene(int[] intArray) {
-        ByteBuffer byteBuffer = ByteBuffer.allocate(intArray.length*4);
-        IntBuffer intBuffer = byteBuffer.asIntBuffer();
-        intBuffer.put(intArray);
-        this.bitSet = BitSet.valueOf(byteBuffer);
-        this.length = intArray.length*32;
-
-        /*byte bytes[] = new byte[intArray.length*4];
-        for(int i = 0; i < intArray.length; i++) {
-            bytes[i*4] = (byte) (intArray[i] >>> 0);
-            bytes[i*4+1] = (byte) (intArray[i] >>> 8);
-            bytes[i*4+2] = (byte) (intArray[i] >>> 16);
-            bytes[i*4+3] = (byte) (intArray[i] >>> 24);
+        this(intArray.length * 32);
+        for (int i = 0; i < intArray.length; i++) {
+            words[i >>> 1] |= (intArray[i] & 0xFFFFFFFFL) << ((i & 1) * 32);
         }
-        this.bitSet = BitSet.valueOf(bytes);
-        this.length = bytes.length*8;*/
     }
 
     /**
-     * Gene Constructor
+     * Gene Constructor. All bits are 0.
      *
-     * @param length length of the BitSet.
+     * @param length length of the Gene.
      */
     public Gene(int length) {
-        this.bitSet = new BitSet();
-        this.length = length;
+        this(new long[wordCount(length)], length, true);
     }
 
     /**
@@ -103,17 +76,63 @@ public class Gene {
      * @param to     End Index for BitSet copy. Exclusive.
      */
     public Gene(BitSet bitSet, int from, int to) {
-        this.bitSet = new BitSet();
-        this.length = to - from;
-        for (int i = from; i < to; i++) {
-            if (bitSet.get(i)) {
-                this.bitSet.set(i);
-            } else {
-                this.bitSet.clear(i);
-            }
+        this(to - from);
+        for (int i = bitSet.nextSetBit(from); i >= 0 && i < to; i = bitSet.nextSetBit(i + 1)) {
+            set(i - from, true);
+        }
+    }
+
+    /**
+     * Constructor for a Gene from an array of byte value.
+     * Byte i is stored in the bits i * 8 until i * 8 + 7.
+     *
+     * @param bytes byte array
+     */
+    public Gene(byte[] bytes) {
+        this(bytes.length * 8);
+        for (int i = 0; i < bytes.length; i++) {
+            words[i >>> 3] |= (bytes[i] & 0xFFL) << ((i & 7) * 8);
         }
     }
 
+    /**
+     * Gene Constructor.
+     *
+     * @param bitSet BitSet to be used. All values until index length will be used.
+     * @param length Maximum length of the BitSet.
+     */
+    public Gene(BitSet bitSet, int length) {
+        this(bitSet, 0, length);
+    }
+
+    /**
+     * Wraps the words without copying them.
+     *
+     * @param words  packed bits
+     * @param length amount of bits
+     * @param clear  if the bits after length have to be cleared
+     */
+    private Gene(long[] words, int length, boolean clear) {
+        if (length < 0 || words.length != wordCount(length)) {
+            throw new IllegalArgumentException("Word count does not match length " + length);
+        }
+        this.words = words;
+        this.length = length;
+        if (clear && (length & 63) != 0) {
+            words[words.length - 1] &= -1L >>> (64 - (length & 63));
+        }
+    }
+
+    /**
+     * Amount of long words needed to hold length bits.
+     *
+     * @param length amount of bits
+     * @return amount of words
+     */
+    public static int wordCount(int length) {
+        return (length + 63) >>> 6;
+    }
+
     /**
      * Interprets the BitString as array of bytes and prints it.
      *
@@ -183,14 +202,9 @@ public class Gene {
         StringBuilder sb = new StringBuilder();
 
         long longs[] = getBitSetAsLongArray();
-        double doubles[] = new double[longs.length];
-
-        for (int i = 0; i < longs.length; i++) {
-            doubles[i] = Double.longBitsToDouble(longs[i]);
-        }
         sb.append("[");
-        for (double d : doubles) {
-            sb.append(d);
+        for (long l : longs) {
+            sb.append(Double.longBitsToDouble(l));
             sb.append(", ");
         }
         sb.replace(sb.lastIndexOf(", "), sb.length(), "");
@@ -200,118 +214,241 @@ public class Gene {
     }
 
     /**
-     * Constructor for a Gene from an array of byte value.
-     * @param bytes byte array
-     */
-    public Gene(byte[] bytes) {
-        this(BitSet.valueOf(bytes), bytes.length * 8);
-    }
-
-    /**
-     * Builds an array of byte values from the BitSet
+     * Builds an array of byte values from the bits
      *
      * @return new array of bytes with length this.length/8
      */
     public byte[] getBitSetAsByteArray() {
-        byte bytes[] = new byte[(getLength()) / 8];
-        for (int i = 0; i < getLength(); i++) {
-            if (bitSet.get(i)) {
-                bytes[i / 8] |= 1 << (i % 8);
-            }
+        byte bytes[] = new byte[length / 8];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) (words[i >>> 3] >>> ((i & 7) * 8));
         }
         return bytes;
     }
 
     /**
-     * Build an array of long values from the BitSet.
+     * Build an array of long values from the bits.
      *
      * @return new array of long values with length this.length/64
      */
     public long[] getBitSetAsLongArray() {
-        long longs[] = new long[(getLength()) / 64];
-        for (int i = 0; i < getLength(); i++) {
-            if (bitSet.get(i)) {
-                longs[i / 64] |= 1 << (i % 64);
-            }
-        }
+        long longs[] = new long[length / 64];
+        System.arraycopy(words, 0, longs, 0, longs.length);
         return longs;
     }
 
     /**
-     * Build an array of int values from the BitSet.
+     * Build an array of int values from the bits.
      *
      * @return new array of int values with length this.length/32
      */
     public int[] getBitSetAsIntArray() {
-        IntBuffer intBuffer = ByteBuffer.wrap(bitSet.toByteArray()).asIntBuffer();
-        int intArray[] = new int[intBuffer.remaining()];
-        intBuffer.get(intArray);
-        return intArray;
+        int ints[] = new int[length / 32];
+        for (int i = 0; i < ints.length; i++) {
+            ints[i] = (int) (words[i >>> 1] >>> ((i & 1) * 32));
+        }
+        return ints;
     }
 
     /**
      * Method to get the boolean at index i.
      *
-     * @param i index of the value in the BitSet
+     * @param i index of the bit
      * @return value at index i
      * @throws IndexOutOfBoundsException
      */
     public boolean get(int i) throws IndexOutOfBoundsException {
-        if (i >= this.length) throw new IndexOutOfBoundsException(INDEX_OUT_OF_BOUNDS_STRING);
+        if (i >= length || i < 0) throw new IndexOutOfBoundsException(INDEX_OUT_OF_BOUNDS_STRING);
 
-        return bitSet.get(i);
+        return (words[i >>> 6] & (1L << i)) != 0;
     }
 
     /**
-     * Gene Constructor.
+     * Sets the bit at index i to boolean b.
+     * Throws {@link IndexOutOfBoundsException} for indexes that are too large or negative.
      *
-     * @param bitSet BitSet to be used. All values until index length will be used.
-     * @param length Maximum length of the BitSet.
+     * @param i is the index of the bit we want to be set.
+     * @throws IndexOutOfBoundsException
      */
-    public Gene(BitSet bitSet, int length) {
-        this(bitSet, 0, length);
+    public void set(int i, boolean b) throws IndexOutOfBoundsException {
+        if (i >= length || i < 0) {
+            throw new IndexOutOfBoundsException(INDEX_OUT_OF_BOUNDS_STRING);
+        }
+        if (b) {
+            words[i >>> 6] |= 1L << i;
+        } else {
+            words[i >>> 6] &= ~(1L << i);
+        }
     }
 
     /**
-     * Sets the bit at index i to boolean b.
-     * Throws {@link IndexOutOfBoundsException} for indexes that are too large or negative.
+     * Flips the bit at index i.
      *
-     * @param i is the index in the BitSet we want to be set to 1.
+     * @param i index of the bit
      * @throws IndexOutOfBoundsException
      */
-    public void set(int i, boolean b) throws IndexOutOfBoundsException {
+    public void flip(int i) throws IndexOutOfBoundsException {
         if (i >= length || i < 0) {
             throw new IndexOutOfBoundsException(INDEX_OUT_OF_BOUNDS_STRING);
         }
-        bitSet.set(i, b);
+        words[i >>> 6] ^= 1L << i;
+    }
+
+    /**
+     * Counts the bits set to 1 with {@link FitnessKernels#popcount(long[])}.
+     *
+     * @return amount of set bits
+     */
+    public int cardinality() {
+        return FitnessKernels.popcount(words);
+    }
+
+    /**
+     * Counts the bits that differ between this and another Gene of the same length.
+     *
+     * @param gene Gene to compare to
+     * @return hamming distance
+     */
+    public int hammingDistance(Gene gene) {
+        return FitnessKernels.hammingDistance(words, gene.words);
     }
 
     /**
      * BitSet getter.
      *
-     * @return a copy of the original BitSet in this object.
+     * @return a new BitSet with the bits of this Gene.
      */
     public BitSet getBitSet() {
-        return (BitSet) bitSet.clone();
+        return BitSet.valueOf(words);
+    }
+
+    /**
+     * Reference to the packed words. Must not be modified unless this Gene is owned by the caller.
+     *
+     * @return the words of this Gene
+     */
+    public long[] getWords() {
+        return words;
     }
 
     /**
      * length getter.
      *
-     * @return the length of the BitSet.
+     * @return the length of the Gene.
      */
     public int getLength() {
         return length;
     }
 
+    /**
+     * One point crossover on whole words.
+     * The first child gets the bits of first until point and the bits of second from point on, the second child the other way round.
+     *
+     * @param first  first parent
+     * @param second second parent, has to have the same length
+     * @param point  crossover point
+     * @return array with the two children
+     */
+    public static Gene[] onePointCrossover(Gene first, Gene second, int point) {
+        return twoPointCrossover(first, second, point, first.length);
+    }
+
+    /**
+     * Two point crossover on whole words.
+     * The bits from index from (inclusive) until to (exclusive) are exchanged between the two children.
+     * Words inside the range are swapped, the two boundary words are merged with a mask.
+     *
+     * @param first  first parent
+     * @param second second parent, has to have the same length
+     * @param from   start of the exchanged range
+     * @param to     end of the exchanged range
+     * @return array with the two children
+     */
+    public static Gene[] twoPointCrossover(Gene first, Gene second, int from, int to) {
+        if (first.length != second.length) {
+            throw new IllegalArgumentException("Genes have different lengths.");
+        }
+        final long[] firstChild = first.words.clone();
+        final long[] secondChild = second.words.clone();
+        swapRange(firstChild, secondChild, from, to);
+        return new Gene[]{new Gene(firstChild, first.length, false), new Gene(secondChild, first.length, false)};
+    }
+
+    /**
+     * Uniform crossover on whole words with {@link FitnessKernels#maskedCrossover}.
+     * Where a bit of the mask is set, the first child gets the bit of second and the second child the bit of first.
+     *
+     * @param first  first parent
+     * @param second second parent, has to have the same length
+     * @param mask   mask of the exchanged bits, has to have the same length
+     * @return array with the two children
+     */
+    public static Gene[] maskedCrossover(Gene first, Gene second, Gene mask) {
+        if (first.length != second.length || first.length != mask.length) {
+            throw new IllegalArgumentException("Genes have different lengths.");
+        }
+        final long[] firstChild = new long[first.words.length];
+        final long[] secondChild = new long[first.words.length];
+        FitnessKernels.maskedCrossover(first.words, second.words, mask.words, firstChild, secondChild);
+        return new Gene[]{new Gene(firstChild, first.length, false), new Gene(secondChild, first.length, false)};
+    }
+
+    /**
+     * Swaps the bits from (inclusive) until to (exclusive) between the two word arrays.
+     */
+    private static void swapRange(long[] a, long[] b, int from, int to) {
+        if (from >= to) return;
+        final int firstWord = from >>> 6;
+        final int lastWord = (to - 1) >>> 6;
+        final long firstMask = -1L << from;
+        final long lastMask = -1L >>> (63 - ((to - 1) & 63));
+        if (firstWord == lastWord) {
+            swapMasked(a, b, firstWord, firstMask & lastMask);
+            return;
+        }
+        swapMasked(a, b, firstWord, firstMask);
+        for (int w = firstWord + 1; w < lastWord; w++) {
+            long temp = a[w];
+            a[w] = b[w];
+            b[w] = temp;
+        }
+        swapMasked(a, b, lastWord, lastMask);
+    }
+
+    private static void swapMasked(long[] a, long[] b, int w, long mask) {
+        final long diff = (a[w] ^ b[w]) & mask;
+        a[w] ^= diff;
+        b[w] ^= diff;
+    }
+
     /**
      * Overwritten clone method.
      *
-     * @return Returns a new Bitset with the same length and same BitSet as the original.
+     * @return Returns a new Gene with the same length and a copy of the bits.
+     */
+    @Override
+    public Gene clone() {
+        return new Gene(words.clone(), length, false);
+    }
+
+    /**
+     * Two Genes are equal when they have the same length and the same bits.
+     *
+     * @param o Object to be checked for equality.
+     * @return true if equal
      */
     @Override
-    public Object clone() {
-        return new Gene(this.bitSet, this.length);
+    public boolean equals(Object o) {
+        if (!(o instanceof Gene)) {
+            return false;
+        }
+        Gene gene = (Gene) o;
+        return length == gene.length && Arrays.equals(words, gene.words);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * length + Arrays.hashCode(words);
     }
 
     /**
@@ -324,7 +461,7 @@ public class Gene {
     public String toString() {
         StringBuilder sb = new StringBuilder();
         for (int i = 0; i < length; i++) {
-            sb.append(bitSet.get(i) ? "1" : "0");
+            sb.append(get(i) ? "1" : "0");
         }
         return sb.toString();
     }
@@ -0,0 +1,105 @@
+import java.util.AbstractList;
+import java.util.List;
+
+/**
+ * Chromosome with a fixed length bit string as gene.
+ * The bits are packed into the long words of a {@link Gene}, 64 bits per word.
+ * getGene() returns a view with one Integer 0 or 1 per bit for operators that still work on {@code List<Number>}.
+ *
+ * A chromosome owns its Gene and treats it as immutable once it is constructed, so elites, replicas and
+ * unchanged mutation results can share one Gene. Operators change a clone (copy-on-write), never the Gene of a parent.
+ */
+public abstract class GeneChromosome extends Chromosome {
+    private Gene gene;
+
+    /**
+     * Constructor taking a Gene. The Gene is not copied.
+     * Fitness is calculated lazily.
+     *
+     * @param gene
+     */
+    public GeneChromosome(Gene gene) {
+        this.gene = gene;
+    }
+
+    public GeneChromosome(Gene gene, double fitness) {
+        this.gene = gene;
+        setFitness(fitness);
+    }
+
+    /**
+     * createChild method to create a new Chromosome of the same class as the subclass.
+     *
+     * @param gene Gene of the child. Is not copied.
+     * @return new Chromosome
+     */
+    public abstract Chromosome createChild(Gene gene);
+
+    /**
+     * Packs the list into a Gene and passes it to createChild(Gene).
+     *
+     * @param gene list of 0 and 1 values
+     * @return new Chromosome
+     */
+    @Override
+    public Chromosome createChild(List<Number> gene) {
+        return createChild(toGene(gene));
+    }
+
+    /**
+     * @return Reference to the Gene.
+     */
+    public Gene getBitGene() {
+        return gene;
+    }
+
+    /**
+     * @return read only List view of the bits as 0 and 1.
+     */
+    @Override
+    public List<Number> getGene() {
+        return new BitGeneList();
+    }
+
+    /**
+     * Packs the list into a new Gene.
+     *
+     * @param gene list of 0 and 1 values
+     */
+    @Override
+    public void setGene(List<Number> gene) {
+        this.gene = toGene(gene);
+        invalidateFitness();
+    }
+
+    /**
+     * Packs a list of 0 and 1 values into a new Gene. Every value that is not 0 is a set bit.
+     *
+     * @param list list of Number objects
+     * @return new Gene
+     */
+    public static Gene toGene(List<Number> list) {
+        Gene gene = new Gene(list.size());
+        for (int i = 0; i < list.size(); i++) {
+            if (list.get(i).intValue() != 0) {
+                gene.set(i, true);
+            }
+        }
+        return gene;
+    }
+
+    /**
+     * List view of the bits. Boxes on every access.
+     */
+    private class BitGeneList extends AbstractList<Number> {
+        @Override
+        public Number get(int index) {
+            return gene.get(index) ? 1 : 0;
+        }
+
+        @Override
+        public int size() {
+            return gene.getLength();
+        }
+    }
+}
@@ -0,0 +1,323 @@
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Append-only recorder of every generation of a population, read back with {@link GenerationHistoryReader}.
+ *
+ * Every keyframeInterval generations all genes are written in full (bits packed into words).
+ * In between, each chromosome is written relative to the previous generation:
+ * as row reference if it is the same object (elites, replicas, unchanged mutations),
+ * or as up to two parent rows, the loci where the source switches from one parent to the other
+ * (the crossover cut points) and the loci that match neither parent (the mutations).
+ * Permutations are compared by successor instead of by index, see writeDiff().
+ * Parents are found with {@link Chromosome#getFirstParent()} and {@link Chromosome#getSecondParent()},
+ * chromosomes without parents in the previous generation are written in full.
+ * A generation that does not stem from the previous one at all is a keyframe as well,
+ * i.e. every generation of a population in arena or off-heap mode, whose rows are recorded as detached copies.
+ *
+ * Next to the history file an index file (history file name + ".idx") holds the position of every generation,
+ * so the reader can seek to the nearest keyframe. Both files are flushed after every generation.
+ */
+public class GenerationHistory implements Closeable {
+    public static final int DEFAULT_KEYFRAME_INTERVAL = 50;
+    static final int MAGIC = 0x47484953; //"GHIS"
+    static final int VERSION = 1;
+
+    static final byte BITS = 0;
+    static final byte INTS = 1;
+    static final byte DOUBLES = 2;
+    static final byte NUMBERS = 3;
+
+    static final byte KEYFRAME = 0;
+    static final byte DELTA = 1;
+
+    static final int FULL = 0;
+    static final int COPY = 1;
+    static final int DIFF = 2;
+    static final int TOUR_DIFF = 3;
+
+    private final int keyframeInterval;
+    private final FileOutputStream file;
+    private final DataOutputStream index;
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    private final DataOutputStream out = new DataOutputStream(buffer);
+    private long position;
+    private int recorded;
+    private byte kind = -1;
+    private int geneLength;
+    private List<Chromosome> previousGeneration;
+    private Map<Chromosome, Integer> previousRows;
+    private final int[] parentRows = new int[2];
+    private int[] switches = new int[16];
+    private int[] literals = new int[16];
+
+    /**
+     * Creates a new history file, an existing file is replaced.
+     *
+     * @param path             path of the history file
+     * @param keyframeInterval a full generation is written every keyframeInterval generations
+     * @throws IOException
+     */
+    public GenerationHistory(Path path, int keyframeInterval) throws IOException {
+        if (keyframeInterval < 1) {
+            throw new IllegalArgumentException("keyframeInterval has to be at least 1.");
+        }
+        this.keyframeInterval = keyframeInterval;
+        this.file = new FileOutputStream(path.toFile());
+        this.index = new DataOutputStream(new FileOutputStream(indexPath(path).toFile()));
+    }
+
+    public GenerationHistory(Path path) throws IOException {
+        this(path, DEFAULT_KEYFRAME_INTERVAL);
+    }
+
+    static Path indexPath(Path path) {
+        return Paths.get(path.toString() + ".idx");
+    }
+
+    /**
+     * Appends a generation. All generations have to have the same chromosome class and gene length.
+     *
+     * @param generation     number of the generation
+     * @param generationList chromosomes of the generation, every element is read once
+     * @throws IOException
+     */
+    public synchronized void record(int generation, List<Chromosome> generationList) throws IOException {
+        final List<Chromosome> chromosomeList = Arrays.asList(generationList.toArray(new Chromosome[0])); //one get() per row of a lazy list
+        if (kind < 0) {
+            kind = kindOf(chromosomeList.get(0));
+            geneLength = geneLength(chromosomeList.get(0));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeByte(kind);
+            out.writeInt(geneLength);
+            flushBuffer();
+        }
+        final boolean keyframe = recorded % keyframeInterval == 0
+                || previousGeneration == null
+                || !stemsFromPrevious(chromosomeList);
+        final long start = position;
+        out.writeInt(generation);
+        out.writeByte(keyframe ? KEYFRAME : DELTA);
+        out.writeInt(chromosomeList.size());
+        for (Chromosome chromosome : chromosomeList) {
+            out.writeDouble(chromosome.getFitness());
+            if (keyframe) {
+                writeGene(chromosome);
+            } else {
+                writeDelta(chromosome);
+            }
+        }
+        flushBuffer();
+        index.writeInt(generation);
+        index.writeLong(start);
+        index.writeByte(keyframe ? KEYFRAME : DELTA);
+        index.flush();
+
+        final Map<Chromosome, Integer> rows = new IdentityHashMap<>(chromosomeList.size() * 2);
+        for (int row = 0; row < chromosomeList.size(); row++) {
+            rows.putIfAbsent(chromosomeList.get(row), row);
+        }
+        previousGeneration = chromosomeList;
+        previousRows = rows;
+        recorded++;
+    }
+
+    /**
+     * @return true if a chromosome of the list is in the previous generation or has a parent there
+     */
+    private boolean stemsFromPrevious(List<Chromosome> chromosomeList) {
+        for (Chromosome chromosome : chromosomeList) {
+            if (previousRows.containsKey(chromosome)) return true;
+            parentRows[0] = parentRows[1] = -1;
+            addParentRow(chromosome.getFirstParent(), true);
+            addParentRow(chromosome.getSecondParent(), true);
+            if (parentRows[0] >= 0) return true;
+        }
+        return false;
+    }
+
+    private void flushBuffer() throws IOException {
+        buffer.writeTo(file);
+        file.flush();
+        position += buffer.size();
+        buffer.reset();
+    }
+
+    private void writeDelta(Chromosome chromosome) throws IOException {
+        final Integer row = previousRows.get(chromosome);
+        if (row != null) {
+            writeVarInt(out, COPY);
+            writeVarInt(out, row);
+            return;
+        }
+        parentRows[0] = parentRows[1] = -1;
+        addParentRow(chromosome.getFirstParent(), true);
+        addParentRow(chromosome.getSecondParent(), true);
+        final int first = parentRows[0];
+        final int second = parentRows[1];
+        if (first < 0) {
+            writeVarInt(out, FULL);
+            writeGene(chromosome);
+            return;
+        }
+        writeDiff(chromosome, first, second);
+    }
+
+    /**
+     * Adds the row of the parent to parentRows. A parent that is not in the previous generation is an intermediate child,
+     * e.g. a crossover child before its mutation, then its own parents are added.
+     */
+    private void addParentRow(Chromosome parent, boolean followIntermediate) {
+        if (parent == null) return;
+        final int row = rowOf(parent);
+        if (row < 0) {
+            if (followIntermediate) {
+                addParentRow(parent.getFirstParent(), false);
+                addParentRow(parent.getSecondParent(), false);
+            }
+        } else if (parentRows[0] < 0) {
+            parentRows[0] = row;
+        } else if (parentRows[1] < 0 && parentRows[0] != row) {
+            parentRows[1] = row;
+        }
+    }
+
+    private int rowOf(Chromosome chromosome) {
+        if (chromosome == null) return -1;
+        final Integer row = previousRows.get(chromosome);
+        return row == null ? -1 : row;
+    }
+
+    /**
+     * Walks the gene once, staying with the current parent as long as it matches.
+     * Switches to the other parent where only that one matches, and records a literal where none matches.
+     * For {@link PermutationChromosome} genes the alleles are compared with the successor of the previous allele
+     * in the parent instead of the allele at the same index, so shifted sub-tours still match.
+     */
+    private void writeDiff(Chromosome chromosome, int firstRow, int secondRow) throws IOException {
+        final Chromosome[] sources = {previousGeneration.get(firstRow), secondRow < 0 ? null : previousGeneration.get(secondRow)};
+        final boolean tour = chromosome instanceof PermutationChromosome
+                && sources[0] instanceof PermutationChromosome
+                && (sources[1] == null || sources[1] instanceof PermutationChromosome);
+        int switchCount = 0;
+        int literalCount = 0;
+        int source = 0;
+        for (int i = 0; i < geneLength; i++) {
+            final long allele = allele(chromosome, i);
+            if (allele == expected(chromosome, sources[source], i, tour)) continue;
+            if (sources[1 - source] != null && allele == expected(chromosome, sources[1 - source], i, tour)) {
+                source = 1 - source;
+                if (switchCount == switches.length) switches = Arrays.copyOf(switches, switchCount * 2);
+                switches[switchCount++] = i;
+            } else {
+                if (literalCount == literals.length) literals = Arrays.copyOf(literals, literalCount * 2);
+                literals[literalCount++] = i;
+            }
+        }
+        writeVarInt(out, tour ? TOUR_DIFF : DIFF);
+        writeVarInt(out, firstRow);
+        writeVarInt(out, secondRow + 1);
+        writeVarInt(out, switchCount);
+        int last = 0;
+        for (int s = 0; s < switchCount; s++) {
+            writeVarInt(out, switches[s] - last);
+            last = switches[s];
+        }
+        writeVarInt(out, literalCount);
+        last = 0;
+        for (int l = 0; l < literalCount; l++) {
+            writeVarInt(out, literals[l] - last);
+            last = literals[l];
+            if (kind != BITS) { //a bit that matches no parent is the flipped bit of the current parent
+                writeAllele(out, kind, allele(chromosome, literals[l]));
+            }
+        }
+    }
+
+    /**
+     * @return allele i of the source, or in a tour the successor of allele i - 1 of the chromosome in the source.
+     */
+    private long expected(Chromosome chromosome, Chromosome source, int i, boolean tour) {
+        if (!tour || i == 0) return allele(source, i);
+        return ((PermutationChromosome) source).successor(((IntChromosome) chromosome).getAllele(i - 1));
+    }
+
+    private void writeGene(Chromosome chromosome) throws IOException {
+        if (kind == BITS) {
+            final long[] words = ((GeneChromosome) chromosome).getBitGene().getWords();
+            for (long word : words) {
+                out.writeLong(word);
+            }
+            return;
+        }
+        for (int i = 0; i < geneLength; i++) {
+            writeAllele(out, kind, allele(chromosome, i));
+        }
+    }
+
+    /**
+     * @return the allele as long: 0 or 1 for bits, the value for ints, the raw bits for doubles.
+     */
+    private long allele(Chromosome chromosome, int i) {
+        switch (kind) {
+            case BITS:
+                return ((GeneChromosome) chromosome).getBitGene().get(i) ? 1 : 0;
+            case INTS:
+                return ((IntChromosome) chromosome).getAllele(i);
+            case DOUBLES:
+                return Double.doubleToLongBits(((DoubleChromosome) chromosome).getAllele(i));
+            default:
+                return Double.doubleToLongBits(chromosome.getGene().get(i).doubleValue());
+        }
+    }
+
+    static byte kindOf(Chromosome chromosome) {
+        if (chromosome instanceof GeneChromosome) return BITS;
+        if (chromosome instanceof IntChromosome) return INTS;
+        if (chromosome instanceof DoubleChromosome) return DOUBLES;
+        return NUMBERS;
+    }
+
+    private static int geneLength(Chromosome chromosome) {
+        if (chromosome instanceof GeneChromosome) return ((GeneChromosome) chromosome).getBitGene().getLength();
+        if (chromosome instanceof IntChromosome) return ((IntChromosome) chromosome).getGeneLength();
+        if (chromosome instanceof DoubleChromosome) return ((DoubleChromosome) chromosome).getGeneLength();
+        return chromosome.getGene().size();
+    }
+
+    private static void writeAllele(DataOutput out, byte kind, long allele) throws IOException {
+        if (kind == INTS) {
+            writeVarInt(out, ((int) allele << 1) ^ ((int) allele >> 31)); //zigzag
+        } else {
+            out.writeLong(allele);
+        }
+    }
+
+    /**
+     * Writes an int as unsigned variable length value, 7 bits per byte.
+     */
+    static void writeVarInt(DataOutput out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        file.close();
+        index.close();
+    }
+}
@@ -0,0 +1,289 @@
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Random access to the generations written by a {@link GenerationHistory}.
+ * A generation is decoded from the nearest keyframe before it, applying the deltas in between.
+ */
+public class GenerationHistoryReader implements Closeable {
+    private final RandomAccessFile file;
+    private final byte kind;
+    private final int geneLength;
+    private final int[] generations;
+    private final long[] positions;
+    private final boolean[] keyframes;
+
+    /**
+     * Opens a history file and reads its index.
+     *
+     * @param path path of the history file
+     * @throws IOException if the file is no history file
+     */
+    public GenerationHistoryReader(Path path) throws IOException {
+        this.file = new RandomAccessFile(path.toFile(), "r");
+        if (file.readInt() != GenerationHistory.MAGIC || file.readInt() != GenerationHistory.VERSION) {
+            file.close();
+            throw new IOException("Not a generation history file: " + path);
+        }
+        this.kind = file.readByte();
+        this.geneLength = file.readInt();
+
+        final byte[] index = Files.readAllBytes(GenerationHistory.indexPath(path));
+        final int count = index.length / 13;
+        final DataInputStream in = new DataInputStream(new ByteArrayInputStream(index));
+        this.generations = new int[count];
+        this.positions = new long[count];
+        this.keyframes = new boolean[count];
+        for (int i = 0; i < count; i++) {
+            generations[i] = in.readInt();
+            positions[i] = in.readLong();
+            keyframes[i] = in.readByte() == GenerationHistory.KEYFRAME;
+        }
+    }
+
+    /**
+     * @return amount of recorded generations
+     */
+    public int getGenerationCount() {
+        return generations.length;
+    }
+
+    /**
+     * @param index index of the recorded generation
+     * @return generation number passed to record()
+     */
+    public int getGeneration(int index) {
+        return generations[index];
+    }
+
+    public int getGeneLength() {
+        return geneLength;
+    }
+
+    /**
+     * Reads only the fitness values of a generation, no genes are decoded.
+     *
+     * @param index index of the recorded generation
+     * @return fitness values in row order
+     * @throws IOException
+     */
+    public double[] readFitness(int index) throws IOException {
+        final DataInputStream in = openGeneration(index);
+        final boolean keyframe = in.readByte() == GenerationHistory.KEYFRAME;
+        final double[] fitness = new double[in.readInt()];
+        for (int row = 0; row < fitness.length; row++) {
+            fitness[row] = in.readDouble();
+            if (keyframe) {
+                readGene(in);
+            } else {
+                readDelta(in, null);
+            }
+        }
+        return fitness;
+    }
+
+    /**
+     * Decodes the alleles of a generation: 0 or 1 for bits, the value for ints, the raw bits for doubles.
+     *
+     * @param index index of the recorded generation
+     * @return one allele array per row
+     * @throws IOException
+     */
+    public long[][] readAlleles(int index) throws IOException {
+        int keyframe = index;
+        while (!keyframes[keyframe]) keyframe--;
+        long[][] rows = null;
+        for (int i = keyframe; i <= index; i++) {
+            rows = readAlleles(openGeneration(i), rows);
+        }
+        return rows;
+    }
+
+    /**
+     * Decodes a generation into new chromosomes created with createChild() of the prototype.
+     * The recorded fitness values are set on the chromosomes.
+     *
+     * @param index     index of the recorded generation
+     * @param prototype chromosome of the recorded class
+     * @return chromosomes in row order
+     * @throws IOException
+     */
+    public List<Chromosome> read(int index, Chromosome prototype) throws IOException {
+        final long[][] rows = readAlleles(index);
+        final double[] fitness = readFitness(index);
+
+        final List<Chromosome> chromosomeList = new ArrayList<>(rows.length);
+        for (int row = 0; row < rows.length; row++) {
+            final Chromosome chromosome = createChromosome(prototype, rows[row]);
+            chromosome.setFitness(fitness[row]);
+            chromosomeList.add(chromosome);
+        }
+        return chromosomeList;
+    }
+
+    private Chromosome createChromosome(Chromosome prototype, long[] alleles) {
+        switch (kind) {
+            case GenerationHistory.BITS:
+                final Gene gene = new Gene(geneLength);
+                for (int i = 0; i < geneLength; i++) {
+                    if (alleles[i] != 0) gene.set(i, true);
+                }
+                return ((GeneChromosome) prototype).createChild(gene);
+            case GenerationHistory.INTS:
+                final int[] ints = new int[geneLength];
+                for (int i = 0; i < geneLength; i++) {
+                    ints[i] = (int) alleles[i];
+                }
+                return ((IntChromosome) prototype).createChild(ints);
+            case GenerationHistory.DOUBLES:
+                final double[] doubles = new double[geneLength];
+                for (int i = 0; i < geneLength; i++) {
+                    doubles[i] = Double.longBitsToDouble(alleles[i]);
+                }
+                return ((DoubleChromosome) prototype).createChild(doubles);
+            default:
+                final List<Number> numbers = new ArrayList<>(geneLength);
+                for (int i = 0; i < geneLength; i++) {
+                    numbers.add(Double.longBitsToDouble(alleles[i]));
+                }
+                return prototype.createChild(numbers);
+        }
+    }
+
+    /**
+     * Reads the bytes of a generation and skips its generation number.
+     */
+    private DataInputStream openGeneration(int index) throws IOException {
+        final long end = index + 1 < positions.length ? positions[index + 1] : file.length();
+        final byte[] bytes = new byte[(int) (end - positions[index])];
+        file.seek(positions[index]);
+        file.readFully(bytes);
+        final DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        in.readInt();
+        return in;
+    }
+
+    /**
+     * Decodes one generation based on the rows of the previous one. Unchanged rows share their array.
+     */
+    private long[][] readAlleles(DataInputStream in, long[][] previous) throws IOException {
+        final boolean keyframe = in.readByte() == GenerationHistory.KEYFRAME;
+        final long[][] rows = new long[in.readInt()][];
+        for (int row = 0; row < rows.length; row++) {
+            in.readDouble(); //fitness
+            rows[row] = keyframe ? readGene(in) : readDelta(in, previous);
+        }
+        return rows;
+    }
+
+    private long[] readGene(DataInput in) throws IOException {
+        final long[] alleles = new long[geneLength];
+        if (kind == GenerationHistory.BITS) {
+            for (int w = 0; w < (geneLength + 63) >>> 6; w++) {
+                final long word = in.readLong();
+                for (int i = w << 6; i < Math.min(geneLength, (w + 1) << 6); i++) {
+                    alleles[i] = (word >>> (i & 63)) & 1;
+                }
+            }
+            return alleles;
+        }
+        for (int i = 0; i < geneLength; i++) {
+            alleles[i] = readAllele(in);
+        }
+        return alleles;
+    }
+
+    /**
+     * Decodes a delta. With previous == null the delta is only skipped.
+     */
+    private long[] readDelta(DataInput in, long[][] previous) throws IOException {
+        final int type = readVarInt(in);
+        if (type == GenerationHistory.FULL) {
+            return readGene(in);
+        }
+        if (type == GenerationHistory.COPY) {
+            final int row = readVarInt(in);
+            return previous == null ? null : previous[row];
+        }
+        final int firstRow = readVarInt(in);
+        final int secondRow = readVarInt(in) - 1;
+        final int[] switches = new int[readVarInt(in)];
+        for (int s = 0, last = 0; s < switches.length; s++) {
+            last += readVarInt(in);
+            switches[s] = last;
+        }
+        final int literalCount = readVarInt(in);
+        final int[] literalIndexes = new int[literalCount];
+        final long[] literalValues = new long[literalCount];
+        for (int l = 0, last = 0; l < literalCount; l++) {
+            last += readVarInt(in);
+            literalIndexes[l] = last;
+            if (kind != GenerationHistory.BITS) literalValues[l] = readAllele(in);
+        }
+        if (previous == null) return null;
+
+        final long[][] sources = {previous[firstRow], secondRow < 0 ? null : previous[secondRow]};
+        final int[][] positions = type == GenerationHistory.TOUR_DIFF
+                ? new int[][]{positions(sources[0]), sources[1] == null ? null : positions(sources[1])}
+                : null;
+        final long[] alleles = new long[geneLength];
+        int source = 0;
+        for (int i = 0, s = 0, l = 0; i < geneLength; i++) {
+            if (s < switches.length && switches[s] == i) {
+                source = 1 - source;
+                s++;
+            }
+            if (l < literalCount && literalIndexes[l] == i) {
+                alleles[i] = kind == GenerationHistory.BITS ? 1 - sources[source][i] : literalValues[l];
+                l++;
+            } else if (positions == null || i == 0) {
+                alleles[i] = sources[source][i];
+            } else { //successor of the previous allele in the source tour
+                final int next = positions[source][(int) alleles[i - 1]] + 1;
+                alleles[i] = sources[source][next == geneLength ? 0 : next];
+            }
+        }
+        return alleles;
+    }
+
+    /**
+     * @return inverse index of a tour, index of each allele in the tour
+     */
+    private int[] positions(long[] tour) {
+        final int[] positions = new int[geneLength];
+        for (int i = 0; i < geneLength; i++) {
+            positions[(int) tour[i]] = i;
+        }
+        return positions;
+    }
+
+    private long readAllele(DataInput in) throws IOException {
+        if (kind == GenerationHistory.INTS) {
+            final int zigzag = readVarInt(in);
+            return (zigzag >>> 1) ^ -(zigzag & 1);
+        }
+        return in.readLong();
+    }
+
+    private static int readVarInt(DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            final byte b = in.readByte();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) return value;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+}
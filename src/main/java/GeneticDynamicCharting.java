@@ -28,21 +28,21 @@ import org.jfree.data.xy.XYSeriesCollection;
  */
 public class GeneticDynamicCharting {
     protected final ArrayBlockingQueue<ChromosomeData> sharedBlockingQueue;
-    protected final List<Population> populationList;
-    protected final Map<String, Population> idPopulationMap;
+    protected final List<Population<?>> populationList;
+    protected final Map<String, Population<?>> idPopulationMap;
     protected final Map<String, Map<String, XYSeries>> idXYseriesMap;
     protected final Map<String, XYTextAnnotation> idAnnotationMap;
 
     protected final int maxGenerations;
     public static final int SIXTY_TIMES_PER_SECOND = 1000 / 60;
 
-    public GeneticDynamicCharting(List<Population> populationList, int maxGenerations) {
+    public GeneticDynamicCharting(List<Population<?>> populationList, int maxGenerations) {
         this.populationList = populationList;
         this.maxGenerations = maxGenerations;
 
         this.sharedBlockingQueue = new ArrayBlockingQueue<>(100);
         this.idPopulationMap = new HashMap<>();
-        for (Population p : populationList) {
+        for (Population<?> p : populationList) {
             idPopulationMap.put(p.getId(), p);
         }
         this.idAnnotationMap = new HashMap<>();
@@ -162,7 +162,7 @@ public class GeneticDynamicCharting {
      */
     public void start() {
         EventQueue.invokeLater(() -> {
-            for (Population p : populationList) {
+            for (Population<?> p : populationList) {
                 new Thread(new GeneticProducer(maxGenerations, p, sharedBlockingQueue)).start();
                 try {
                     Thread.sleep(100);
@@ -10,6 +10,7 @@ import org.jfree.data.xy.XYSeriesCollection;
 import java.io.File;
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.concurrent.ArrayBlockingQueue;
 
 /**
@@ -18,29 +19,40 @@ import java.util.concurrent.ArrayBlockingQueue;
 public class GeneticProducer implements Runnable {
     private volatile boolean running; //running boolean for the run method
     private final ArrayBlockingQueue<ChromosomeData> sharedBlockingQueue;
-    private final Population population;
+    private final Population<?> population;
     private static final int DEFAULT_MAX_GENERATIONS = 10000;
     int maxGenerations;
     private final Double maxFitness;
+    private GenerationHistory history;
 
-    public GeneticProducer(int maxGenerations, Double maxFitness, Population pop, ArrayBlockingQueue<ChromosomeData> sharedBlockingQueue) {
+    public GeneticProducer(int maxGenerations, Double maxFitness, Population<?> pop, ArrayBlockingQueue<ChromosomeData> sharedBlockingQueue) {
         this.sharedBlockingQueue = sharedBlockingQueue;
         this.population = pop;
         this.maxGenerations = maxGenerations;
         this.maxFitness = maxFitness;
     }
 
-    public GeneticProducer(int maxGenerations, Population pop, ArrayBlockingQueue<ChromosomeData> sharedBlockingQueue) {
+    public GeneticProducer(int maxGenerations, Population<?> pop, ArrayBlockingQueue<ChromosomeData> sharedBlockingQueue) {
         this(maxGenerations, null, pop, sharedBlockingQueue);
     }
 
-    public GeneticProducer(Population pop, ArrayBlockingQueue<ChromosomeData> sharedBlockingQueue) {
+    public GeneticProducer(Population<?> pop, ArrayBlockingQueue<ChromosomeData> sharedBlockingQueue) {
         this(DEFAULT_MAX_GENERATIONS, pop, sharedBlockingQueue);
     }
 
+    /**
+     * Sets a history every produced generation is recorded to. The history is not closed by the producer.
+     *
+     * @param history history to record to, or null to stop recording
+     */
+    public void setHistory(GenerationHistory history) {
+        this.history = history;
+    }
+
     /**
      * Overwritten run method of the Runnable interface.
-     * Offers all {@link Chromosome} Objects of the {@link Population} Object to the shared blocking queue.
+     * Offers all {@link Chromosome} Objects of the {@link Population} Object to the shared blocking queue,
+     * and records them to the history if one is set.
      * Then it evolves the population another generation.
      */
     @Override
@@ -53,8 +65,10 @@ public class GeneticProducer implements Runnable {
         });*/
         ChromosomeData chromosomeData = null;
         while (running && i < maxGenerations) {
-            chromosomeData = new ChromosomeData(population.getId(), population.getChromosomeList(), i);
+            chromosomeData = new ChromosomeData(population.getId(), Collections.unmodifiableList(population.getChromosomeListSnapshot()), i,
+                    population.getMaxFittest(), population.getMinFittest(), population.getAverageFitness());
             if (sharedBlockingQueue.offer(chromosomeData)) {
+                record(chromosomeData);
                 if(maxFitness != null) {
                     if(chromosomeData.getMaxFitnessValue() == maxFitness.doubleValue()) {
                         break;
@@ -66,13 +80,25 @@ public class GeneticProducer implements Runnable {
         }
     }
 
+    private void record(ChromosomeData chromosomeData) {
+        if (history == null) return;
+        try {
+            history.record(chromosomeData.getCurrentGeneration(), chromosomeData.getChromosomeList());
+        } catch (IOException e) {
+            Population.getLOGGER().warning("Recording stopped, history could not be written: " + e.getMessage());
+            history = null;
+        }
+    }
+
     /**
      * Sets the volatile private boolean value checked regularly by the run method to false.
-     * This stops the while loop in the run method.
+     * This stops the while loop in the run method. The evaluation of the generation in progress is cancelled,
+     * if the evaluation stage of the population supports it.
      */
     public void shutdown() {
         if (running) {
             running = false;
+            population.cancelEvaluation();
         }
     }
 
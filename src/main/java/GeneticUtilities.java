@@ -156,6 +156,27 @@ public class GeneticUtilities {
         return numbers;
     }
 
+    /**
+     * Returns a shuffled array of int from 0...maxNumber. The array always starts with 0, rest is shuffled.
+     * Same as getRandomPath without boxing.
+     *
+     * @param maxNumber
+     * @return int[maxNumber]
+     */
+    public static int[] getRandomIntPath(int maxNumber) {
+        int[] path = new int[maxNumber];
+        for (int i = 0; i < maxNumber; i++) {
+            path[i] = i;
+        }
+        for (int i = maxNumber - 1; i > 1; i--) {
+            int j = 1 + ThreadLocalRandom.current().nextInt(i);
+            int temp = path[i];
+            path[i] = path[j];
+            path[j] = temp;
+        }
+        return path;
+    }
+
 
     public static List<Coord2d> createListOfCoord2DFromRanges(Range mutationRange, Range crossoverRange, int mutationSteps, int crossoverSteps) {
 
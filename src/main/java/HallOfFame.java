@@ -0,0 +1,119 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The best distinct chromosomes seen over all generations of a population, best first.
+ * Kept as a small sorted array: an offer is rejected in O(1) if the hall is full and the chromosome is not better
+ * than its worst entry, otherwise inserted in O(capacity).
+ * Int and double chromosomes are copied on entry, so views on arena rows stay valid when the rows are overwritten.
+ */
+public class HallOfFame {
+    private final boolean maximize;
+    private final Chromosome[] entries;
+    private final long[] fingerprints;
+    private int size;
+
+    /**
+     * @param capacity amount of chromosomes kept
+     * @param maximize true if a higher fitness is better
+     */
+    public HallOfFame(int capacity, boolean maximize) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The hall of fame needs a capacity of at least 1.");
+        }
+        this.maximize = maximize;
+        this.entries = new Chromosome[capacity];
+        this.fingerprints = new long[capacity];
+    }
+
+    /**
+     * Adds the chromosome if it is better than the worst entry, or the hall is not full, and no entry has the same gene.
+     * A chromosome without an exact fitness, see {@link Chromosome#isFitnessBound()}, is never added.
+     *
+     * @param chromosome evaluated chromosome
+     * @return true if it was added
+     */
+    public synchronized boolean offer(Chromosome chromosome) {
+        if (chromosome.isFitnessBound()) return false;
+        final double fitness = chromosome.getFitness();
+        if (size == entries.length && !better(fitness, entries[size - 1].getFitness())) return false;
+        final long fingerprint = FitnessCache.fingerprint(chromosome);
+        for (int i = 0; i < size; i++) {
+            if (fingerprints[i] == fingerprint && FitnessCache.sameGene(entries[i], chromosome)) return false;
+        }
+        int position = Math.min(size, entries.length - 1);
+        while (position > 0 && better(fitness, entries[position - 1].getFitness())) {
+            entries[position] = entries[position - 1];
+            fingerprints[position] = fingerprints[position - 1];
+            position--;
+        }
+        entries[position] = snapshot(chromosome);
+        fingerprints[position] = fingerprint;
+        size = Math.min(size + 1, entries.length);
+        return true;
+    }
+
+    /**
+     * Offers the chromosomes in the order given, stops at the first that is rejected for its fitness.
+     * Chromosomes without an exact fitness are skipped.
+     *
+     * @param bestFirst chromosomes sorted best first
+     */
+    public synchronized void offerAll(List<Chromosome> bestFirst) {
+        for (Chromosome chromosome : bestFirst) {
+            if (chromosome.isFitnessBound()) continue;
+            if (size == entries.length && !better(chromosome.getFitness(), entries[size - 1].getFitness())) return;
+            offer(chromosome);
+        }
+    }
+
+    private boolean better(double fitness, double than) {
+        return maximize ? fitness > than : fitness < than;
+    }
+
+    /**
+     * Copy of gene and fitness that later writes into the array of the gene, i.e. the rows of a storage, do not change.
+     * Chromosomes of other kinds are returned as they are.
+     *
+     * @return detached copy of the chromosome
+     */
+    static Chromosome snapshot(Chromosome chromosome) {
+        final Chromosome copy;
+        if (chromosome instanceof IntChromosome) {
+            copy = ((IntChromosome) chromosome).createChild(((IntChromosome) chromosome).copyGene());
+        } else if (chromosome instanceof DoubleChromosome) {
+            copy = ((DoubleChromosome) chromosome).createChild(((DoubleChromosome) chromosome).copyGene());
+        } else {
+            return chromosome;
+        }
+        copy.setFitness(chromosome.getFitness());
+        return copy;
+    }
+
+    /**
+     * @return best chromosome ever offered, or null if none was
+     */
+    public synchronized Chromosome getBest() {
+        return size == 0 ? null : entries[0];
+    }
+
+    /**
+     * @return new list of the entries, best first
+     */
+    public synchronized List<Chromosome> getChromosomes() {
+        return new ArrayList<>(Arrays.asList(entries).subList(0, size));
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public boolean isMaximize() {
+        return maximize;
+    }
+
+    public int getCapacity() {
+        return entries.length;
+    }
+}
@@ -0,0 +1,249 @@
+import java.util.AbstractList;
+import java.util.List;
+
+/**
+ * Chromosome with a gene of primitive int values.
+ * The gene is a slice of an int array (array, offset, length), so the alleles are never boxed.
+ * getGene() returns a read only view of the slice for operators that still work on {@code List<Number>}.
+ *
+ * A chromosome owns its gene and treats it as immutable once it is constructed, so elites, replicas and
+ * unchanged mutation results can share one gene. Operators write into new arrays (copy-on-write), never into a parent.
+ */
+public abstract class IntChromosome extends Chromosome {
+    private static final ThreadLocal<int[]> SCRATCH = ThreadLocal.withInitial(() -> new int[0]);
+    private int[] gene;
+    private int offset;
+    private int length;
+    private PopulationArena arena;
+    private int row;
+
+    /**
+     * Constructor taking an int array as gene. The array is not copied.
+     * Fitness is calculated lazily.
+     *
+     * @param gene int array holding the gene.
+     */
+    public IntChromosome(int[] gene) {
+        this(gene, 0, gene.length);
+    }
+
+    /**
+     * Constructor taking a slice of an int array as gene. The array is not copied.
+     * Fitness is calculated lazily.
+     *
+     * @param gene   int array holding the gene.
+     * @param offset index of the first allele in the array.
+     * @param length amount of alleles.
+     */
+    public IntChromosome(int[] gene, int offset, int length) {
+        this.gene = gene;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    public IntChromosome(int[] gene, double fitness) {
+        this.gene = gene;
+        this.offset = 0;
+        this.length = gene.length;
+        setFitness(fitness);
+    }
+
+    /**
+     * createChild method to create a new Chromosome of the same class as the subclass.
+     *
+     * @param gene int array of the child. Is not copied.
+     * @return new Chromosome
+     */
+    public abstract Chromosome createChild(int[] gene);
+
+    /**
+     * Unboxes the list and passes it to createChild(int[]).
+     *
+     * @param gene
+     * @return new Chromosome
+     */
+    @Override
+    public Chromosome createChild(List<Number> gene) {
+        int[] intGene = new int[gene.size()];
+        for (int i = 0; i < intGene.length; i++) {
+            intGene[i] = gene.get(i).intValue();
+        }
+        return createChild(intGene);
+    }
+
+    /**
+     * @return Reference to the array holding the gene. Alleles start at getGeneOffset().
+     */
+    public int[] getIntGene() {
+        return gene;
+    }
+
+    /**
+     * @return index of the first allele in getIntGene().
+     */
+    public int getGeneOffset() {
+        return offset;
+    }
+
+    /**
+     * @return amount of alleles.
+     */
+    public int getGeneLength() {
+        return length;
+    }
+
+    /**
+     * @param i index of the allele
+     * @return value of allele i
+     */
+    public int getAllele(int i) {
+        return gene[offset + i];
+    }
+
+    /**
+     * @return new array holding a copy of the gene.
+     */
+    public int[] copyGene() {
+        int[] copy = new int[length];
+        System.arraycopy(gene, offset, copy, 0, length);
+        return copy;
+    }
+
+    /**
+     * Copies the gene into a scratch array of the current thread, which is reused by the next call on that thread.
+     * Lets operators try a change without allocating, and copy only if something changed.
+     *
+     * @return scratch array holding a copy of the gene starting at index 0
+     */
+    int[] copyGeneToScratch() {
+        int[] scratch = SCRATCH.get();
+        if (scratch.length < length) {
+            scratch = new int[length];
+            SCRATCH.set(scratch);
+        }
+        System.arraycopy(gene, offset, scratch, 0, length);
+        return scratch;
+    }
+
+    /**
+     * @param other       array holding the other gene
+     * @param otherOffset index of the first allele of the other gene
+     * @return true if the other gene has the same alleles as this gene
+     */
+    public boolean geneEquals(int[] other, int otherOffset) {
+        for (int i = 0; i < length; i++) {
+            if (gene[offset + i] != other[otherOffset + i]) return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return read only List view of the gene.
+     */
+    @Override
+    public List<Number> getGene() {
+        return new IntGeneList();
+    }
+
+    /**
+     * Unboxes the list into a new int array.
+     *
+     * @param gene
+     */
+    @Override
+    public void setGene(List<Number> gene) {
+        int[] intGene = new int[gene.size()];
+        for (int i = 0; i < intGene.length; i++) {
+            intGene[i] = gene.get(i).intValue();
+        }
+        setGene(intGene, 0, intGene.length);
+    }
+
+    /**
+     * Sets a new slice as gene. The array is not copied.
+     *
+     * @param gene   int array holding the gene.
+     * @param offset index of the first allele in the array.
+     * @param length amount of alleles.
+     */
+    protected void setGene(int[] gene, int offset, int length) {
+        this.gene = gene;
+        this.offset = offset;
+        this.length = length;
+        invalidateFitness();
+    }
+
+    /**
+     * Turns this chromosome into a view on a row of a {@link PopulationArena}.
+     * Gene and fitness are then read from the arena, the arena keeps the fitness of every row evaluated.
+     *
+     * @param arena arena holding the row
+     * @param row   index of the row
+     */
+    void attach(PopulationArena arena, int row) {
+        this.arena = arena;
+        this.row = row;
+        setGene(arena.getGenes(), row * arena.getGeneLength(), arena.getGeneLength());
+    }
+
+    /**
+     * @return fitness value, read from the arena if this chromosome is a view on a row.
+     */
+    @Override
+    public double getFitness() {
+        return arena == null ? super.getFitness() : arena.getFitness()[row];
+    }
+
+    @Override
+    public void setFitness(double fitness) {
+        if (arena == null) {
+            super.setFitness(fitness);
+        } else {
+            arena.getFitness()[row] = fitness;
+        }
+    }
+
+    /**
+     * @return true if the fitness value is calculated or set, always true for a view on a row.
+     */
+    @Override
+    public boolean isEvaluated() {
+        return arena != null || super.isEvaluated();
+    }
+
+    /**
+     * @return true if the fitness value is only a bound, never for a view on a row, the arena calculates exact values.
+     */
+    @Override
+    public boolean isFitnessBound() {
+        return arena == null && super.isFitnessBound();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("[");
+        for (int i = 0; i < length; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(gene[offset + i]);
+        }
+        sb.append("]");
+        return sb.toString();
+    }
+
+    /**
+     * List view of the gene slice. Boxes on every access.
+     */
+    private class IntGeneList extends AbstractList<Number> {
+        @Override
+        public Number get(int index) {
+            if (index < 0 || index >= length) throw new IndexOutOfBoundsException();
+            return gene[offset + index];
+        }
+
+        @Override
+        public int size() {
+            return length;
+        }
+    }
+}
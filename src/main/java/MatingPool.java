@@ -0,0 +1,100 @@
+import java.util.List;
+
+/**
+ * Parent indexes of one generation, selected in batches of pairs with a {@link FunctionalBatchSelectionInterface}
+ * if the selection is one, else with select() calls after forGeneration().
+ * A new batch is selected when the pool runs empty, i.e. when crossovers return only one child.
+ *
+ * The index array is allocated once, a pool can be reset() for the next generation and selects into the same array.
+ */
+class MatingPool {
+    private final int[] parents;
+    private FunctionalSelectionInterface selectionInterface;
+    private List<Chromosome> chromosomeList;
+    private double[] fitness;
+    private int size;
+    private int pairs;
+    private FunctionalSelectionInterface generation;
+    private int length;
+    private int next;
+
+    /**
+     * Empty pool, reset() it before use.
+     *
+     * @param capacity largest amount of pairs selected per batch
+     */
+    MatingPool(int capacity) {
+        this.parents = new int[2 * Math.max(1, capacity)];
+    }
+
+    /**
+     * Pool over the chromosome list.
+     *
+     * @param pairs amount of pairs selected per batch
+     */
+    MatingPool(FunctionalSelectionInterface selectionInterface, List<Chromosome> chromosomeList, int pairs) {
+        this(selectionInterface, chromosomeList, null, chromosomeList.size(), pairs);
+    }
+
+    /**
+     * Pool over a flat fitness array, the list is used by selections that need the chromosomes.
+     *
+     * @param fitness fitness values, index i holds the fitness of chromosome i
+     * @param size    amount of valid fitness values
+     * @param pairs   amount of pairs selected per batch
+     */
+    MatingPool(FunctionalSelectionInterface selectionInterface, List<Chromosome> chromosomeList, double[] fitness, int size, int pairs) {
+        this(pairs);
+        reset(selectionInterface, chromosomeList, fitness, size, pairs);
+    }
+
+    /**
+     * Empties the pool and selects from a new generation from now on.
+     * Batches are at most as large as the capacity of the pool.
+     *
+     * @param fitness fitness values, index i holds the fitness of chromosome i, or null to read them from the list
+     * @param size    amount of valid fitness values
+     * @param pairs   amount of pairs selected per batch
+     */
+    void reset(FunctionalSelectionInterface selectionInterface, List<Chromosome> chromosomeList, double[] fitness, int size, int pairs) {
+        this.selectionInterface = selectionInterface;
+        this.chromosomeList = chromosomeList;
+        this.fitness = fitness;
+        this.size = size;
+        this.pairs = Math.min(Math.max(1, pairs), parents.length / 2);
+        this.generation = null;
+        this.length = 0;
+        this.next = 0;
+    }
+
+    /**
+     * @return index of the next parent
+     */
+    int next() {
+        if (next == length) {
+            select();
+            length = 2 * pairs;
+            next = 0;
+        }
+        return parents[next++];
+    }
+
+    private void select() {
+        if (selectionInterface instanceof FunctionalBatchSelectionInterface) {
+            if (fitness == null) { //copied once per generation, the list does not change until reset()
+                fitness = new double[size];
+                for (int i = 0; i < size; i++) {
+                    fitness[i] = chromosomeList.get(i).getFitness();
+                }
+            }
+            ((FunctionalBatchSelectionInterface) selectionInterface).selectParents(fitness, size, parents, pairs);
+            return;
+        }
+        if (generation == null) {
+            generation = selectionInterface.forGeneration(chromosomeList);
+        }
+        for (int i = 0; i < 2 * pairs; i++) {
+            parents[i] = generation.select(chromosomeList);
+        }
+    }
+}
@@ -0,0 +1,305 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Population storage for {@link IntChromosome} genes outside of the java heap.
+ * Every row is a fixed-width record of the fitness (double) followed by the alleles (int),
+ * held in direct ByteBuffers or in a memory-mapped file. Records never span two buffers,
+ * so a population can be larger than the 2 GB limit of a single buffer.
+ *
+ * Like {@link PopulationArena} the storage is double buffered, the next generation is written into the second
+ * set of records, then both are swapped. Only the fitness values are mirrored in a double array on the heap,
+ * so selection can read them directly. Parents and children pass through a handful of scratch rows,
+ * the crossover and mutation operators run on those, the records are read and written with bulk copies.
+ *
+ * getChromosomeList() materializes a new chromosome on every get(), use getFitness() and load() to scan the population.
+ */
+public class OffHeapPopulationArena implements PopulationStorage, Closeable {
+    private static final int FITNESS_BYTES = 8;
+    private static final int MAX_BUFFER_BYTES = 1 << 30;
+
+    private final int populationSize;
+    private final int geneLength;
+    private final boolean maximize;
+    private final int recordBytes;
+    private final int recordsPerBuffer;
+    private final FileChannel channel;
+    private final IntChromosome prototype;
+    private final IntChromosome firstParent;
+    private final IntChromosome secondParent;
+    private final IntChromosome cursor;
+    private final int[] firstParentGene;
+    private final int[] secondParentGene;
+    private final int[] firstChild;
+    private final int[] secondChild;
+    private final int[] bestRows;
+    private final MatingPool mating;
+    private final List<Chromosome> chromosomeList;
+    private Records records;
+    private Records nextRecords;
+    private double[] fitness;
+    private double[] nextFitness;
+
+    /**
+     * Creates the storage and fills it with chromosomes of the generator, one at a time,
+     * so the first generation never has to fit on the heap either.
+     * Throws {@link IllegalArgumentException} if the generator returns no {@link IntChromosome} objects of the same gene length.
+     *
+     * @param populationSize      amount of rows
+     * @param chromosomeGenerator generator of the first generation
+     * @param maximize            true if higher fitness is better, false if lower fitness is better
+     * @param file                file to map the records to, or null to use direct buffers
+     * @throws IOException if the file can't be mapped
+     */
+    public OffHeapPopulationArena(int populationSize, FunctionalChromosomeGenerator<?> chromosomeGenerator, boolean maximize, Path file)
+            throws IllegalArgumentException, IOException {
+        final Chromosome first = chromosomeGenerator.generateRandomChromosome();
+        if (!(first instanceof IntChromosome)) {
+            throw new IllegalArgumentException("OffHeapPopulationArena needs IntChromosome objects.");
+        }
+        this.populationSize = populationSize;
+        this.prototype = (IntChromosome) first;
+        this.geneLength = prototype.getGeneLength();
+        this.maximize = maximize;
+        this.recordBytes = FITNESS_BYTES + 4 * geneLength;
+        this.recordsPerBuffer = Math.max(1, MAX_BUFFER_BYTES / recordBytes);
+        if (file == null) {
+            this.channel = null;
+            this.records = new Records(0);
+            this.nextRecords = new Records(0);
+        } else {
+            this.channel = new RandomAccessFile(file.toFile(), "rw").getChannel();
+            this.records = new Records(0);
+            this.nextRecords = new Records((long) populationSize * recordBytes);
+        }
+        this.fitness = new double[populationSize];
+        this.nextFitness = new double[populationSize];
+        this.firstParentGene = new int[geneLength];
+        this.secondParentGene = new int[geneLength];
+        this.firstChild = new int[geneLength];
+        this.secondChild = new int[geneLength];
+        this.bestRows = new int[populationSize];
+        this.mating = new MatingPool(populationSize / 2 + 1);
+        this.firstParent = (IntChromosome) prototype.createChild(firstParentGene);
+        this.secondParent = (IntChromosome) prototype.createChild(secondParentGene);
+        this.cursor = (IntChromosome) prototype.createChild(prototype.copyGene());
+
+        IntChromosome chromosome = prototype;
+        for (int row = 0; row < populationSize; row++) {
+            if (row > 0) {
+                final Chromosome next = chromosomeGenerator.generateRandomChromosome();
+                if (!(next instanceof IntChromosome) || ((IntChromosome) next).getGeneLength() != geneLength) {
+                    throw new IllegalArgumentException("OffHeapPopulationArena needs IntChromosome objects of the same gene length.");
+                }
+                chromosome = (IntChromosome) next;
+            }
+            fitness[row] = chromosome.getFitness();
+            records.store(row, chromosome.getIntGene(), chromosome.getGeneOffset(), fitness[row]);
+        }
+        this.chromosomeList = new RecordList();
+    }
+
+    @Override
+    public int getPopulationSize() {
+        return populationSize;
+    }
+
+    public int getGeneLength() {
+        return geneLength;
+    }
+
+    @Override
+    public boolean isMaximize() {
+        return maximize;
+    }
+
+    /**
+     * @return Reference to the heap copy of the fitness values. Index r holds the fitness of row r.
+     */
+    @Override
+    public double[] getFitness() {
+        return fitness;
+    }
+
+    /**
+     * Copies the alleles of a row into an array.
+     *
+     * @param row    index of the row
+     * @param gene   array receiving the alleles
+     * @param offset index of the first allele in the array
+     */
+    public void load(int row, int[] gene, int offset) {
+        records.load(row, gene, offset);
+    }
+
+    /**
+     * Unmodifiable list of the rows. Every get() reads the record into a new chromosome,
+     * created with createChild() of the first generated chromosome.
+     *
+     * @return list of the rows
+     */
+    @Override
+    public List<Chromosome> getChromosomeList() {
+        return chromosomeList;
+    }
+
+    @Override
+    public boolean hasRowViews() {
+        return false;
+    }
+
+    @Override
+    public int[] getBestRows(int amount) {
+        final int[] rows = new int[amount];
+        PopulationArena.selectBestRows(fitness, populationSize, maximize, rows, amount);
+        return rows;
+    }
+
+    /**
+     * Evolves the storage one generation, the same way as {@link PopulationArena#evolve}.
+     * Parents are read into scratch rows, the crossover writes into two child rows,
+     * which are mutated in place, evaluated with a cursor chromosome and written into the next records.
+     */
+    @Override
+    public void evolve(
+            FunctionalSelectionInterface selectionInterface,
+            FunctionalIntCrossoverInterface crossoverInterface,
+            FunctionalIntMutationInterface mutationInterface,
+            double elitismRate,
+            double crossoverRate,
+            double mutationRate
+    ) {
+        final Records nextRecords = this.nextRecords;
+        final double[] nextFitness = this.nextFitness;
+        final int elites = (int) (elitismRate * populationSize);
+        int i = 0;
+
+        PopulationArena.selectBestRows(fitness, populationSize, maximize, bestRows, elites);
+        for (int e = 0; e < elites; e++) {
+            final int row = bestRows[e];
+            records.load(row, firstChild, 0);
+            nextFitness[i] = fitness[row];
+            nextRecords.store(i, firstChild, 0, nextFitness[i++]);
+        }
+        mating.reset(selectionInterface, chromosomeList, fitness, populationSize, (int) (crossoverRate * (populationSize - elites) / 2) + 1);
+        while (i < populationSize) {
+            if (ThreadLocalRandom.current().nextFloat() <= crossoverRate) {
+                records.load(mating.next(), firstParentGene, 0);
+                records.load(mating.next(), secondParentGene, 0);
+                crossoverInterface.crossover(firstParent, secondParent, firstChild, 0, secondChild, 0);
+                nextFitness[i] = mutateAndEvaluate(mutationInterface, mutationRate, firstChild);
+                nextRecords.store(i, firstChild, 0, nextFitness[i++]);
+                if (i < populationSize) {
+                    nextFitness[i] = mutateAndEvaluate(mutationInterface, mutationRate, secondChild);
+                    nextRecords.store(i, secondChild, 0, nextFitness[i++]);
+                }
+            } else {
+                final int row = ThreadLocalRandom.current().nextInt(populationSize);
+                records.load(row, firstChild, 0);
+                nextFitness[i] = mutationRate > 0
+                        ? mutateAndEvaluate(mutationInterface, mutationRate, firstChild)
+                        : fitness[row];
+                nextRecords.store(i, firstChild, 0, nextFitness[i++]);
+            }
+        }
+
+        this.nextRecords = records;
+        this.nextFitness = fitness;
+        this.records = nextRecords;
+        this.fitness = nextFitness;
+    }
+
+    private double mutateAndEvaluate(FunctionalIntMutationInterface mutationInterface, double mutationRate, int[] child) {
+        mutationInterface.mutate(child, 0, geneLength, mutationRate);
+        cursor.setGene(child, 0, geneLength);
+        return cursor.calculateFitness();
+    }
+
+    /**
+     * Closes the mapped file. Direct buffers are freed by the garbage collector.
+     *
+     * @throws IOException
+     */
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    /**
+     * One generation of records, split over as many buffers as needed.
+     * Record r is in buffer r / recordsPerBuffer, the fitness first, then the alleles.
+     */
+    private class Records {
+        private final ByteBuffer[] buffers;
+        private final IntBuffer[] alleles;
+
+        /**
+         * @param position position of the first record in the mapped file, ignored for direct buffers.
+         */
+        Records(long position) throws IOException {
+            final int count = (populationSize + recordsPerBuffer - 1) / recordsPerBuffer;
+            this.buffers = new ByteBuffer[count];
+            this.alleles = new IntBuffer[count];
+            for (int b = 0; b < count; b++) {
+                final int records = Math.min(recordsPerBuffer, populationSize - b * recordsPerBuffer);
+                final int bytes = records * recordBytes;
+                final ByteBuffer buffer = channel == null
+                        ? ByteBuffer.allocateDirect(bytes)
+                        : channel.map(FileChannel.MapMode.READ_WRITE, position + (long) b * recordsPerBuffer * recordBytes, bytes);
+                buffers[b] = buffer.order(ByteOrder.nativeOrder());
+                alleles[b] = buffers[b].asIntBuffer();
+            }
+        }
+
+        double getFitness(int row) {
+            return buffers[row / recordsPerBuffer].getDouble((row % recordsPerBuffer) * recordBytes);
+        }
+
+        void load(int row, int[] gene, int offset) {
+            final IntBuffer buffer = alleles[row / recordsPerBuffer];
+            ((Buffer) buffer).position(((row % recordsPerBuffer) * recordBytes + FITNESS_BYTES) >>> 2);
+            buffer.get(gene, offset, geneLength);
+        }
+
+        void store(int row, int[] gene, int offset, double fitness) {
+            final int position = (row % recordsPerBuffer) * recordBytes;
+            buffers[row / recordsPerBuffer].putDouble(position, fitness);
+            final IntBuffer buffer = alleles[row / recordsPerBuffer];
+            ((Buffer) buffer).position((position + FITNESS_BYTES) >>> 2);
+            buffer.put(gene, offset, geneLength);
+        }
+    }
+
+    /**
+     * Read-only list of the current records.
+     */
+    private class RecordList extends AbstractList<Chromosome> implements RandomAccess {
+        @Override
+        public Chromosome get(int index) {
+            if (index < 0 || index >= populationSize) throw new IndexOutOfBoundsException();
+            final int[] gene = new int[geneLength];
+            records.load(index, gene, 0);
+            final Chromosome chromosome = prototype.createChild(gene);
+            chromosome.setFitness(records.getFitness(index));
+            return chromosome;
+        }
+
+        @Override
+        public int size() {
+            return populationSize;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Evaluates the unevaluated chromosomes of a generation in parallel on a ForkJoinPool.
+ * The chromosomes are split into chunks of about targetChunkNanos of work each, so cheap fitness functions
+ * are not drowned in task overhead and expensive ones still spread over all workers.
+ * The cost of one evaluation is measured on every batch and smoothed over the generations.
+ * A fixed chunk size can be given instead.
+ */
+public class ParallelFitnessEvaluation implements FunctionalFitnessBatchInterface {
+    public static final long DEFAULT_TARGET_CHUNK_NANOS = 200_000;
+    private static final int CHUNKS_PER_WORKER = 4;
+
+    private final ForkJoinPool pool;
+    private final long targetChunkNanos;
+    private final int fixedChunkSize;
+    private volatile double nanosPerEvaluation;
+
+    /**
+     * Created with Population.parallelEvaluation().
+     *
+     * @param pool             pool to evaluate on
+     * @param targetChunkNanos aimed work per chunk in nanoseconds, used if fixedChunkSize is 0
+     * @param fixedChunkSize   fixed amount of chromosomes per chunk, or 0 to size the chunks by evaluation cost
+     */
+    ParallelFitnessEvaluation(ForkJoinPool pool, long targetChunkNanos, int fixedChunkSize) {
+        if (fixedChunkSize < 0 || (fixedChunkSize == 0 && targetChunkNanos < 1)) {
+            throw new IllegalArgumentException("Chunk size and target chunk time have to be positive.");
+        }
+        this.pool = pool;
+        this.targetChunkNanos = targetChunkNanos;
+        this.fixedChunkSize = fixedChunkSize;
+    }
+
+    @Override
+    public void evaluate(List<Chromosome> chromosomeList) {
+        final List<Chromosome> unevaluated = new ArrayList<>(chromosomeList.size());
+        for (Chromosome chromosome : chromosomeList) {
+            if (!chromosome.isEvaluated()) unevaluated.add(chromosome);
+        }
+        if (unevaluated.isEmpty()) return;
+
+        int first = 0;
+        if (fixedChunkSize == 0 && nanosPerEvaluation == 0) { //first batch, measure one evaluation
+            final long start = System.nanoTime();
+            unevaluated.get(first++).evaluate();
+            nanosPerEvaluation = Math.max(1, System.nanoTime() - start);
+        }
+        final int remaining = unevaluated.size() - first;
+        if (remaining == 0) return;
+
+        final int chunkSize = chunkSize(remaining);
+        final long start = System.nanoTime();
+        pool.invoke(new EvaluationTask(unevaluated, first, unevaluated.size(), chunkSize));
+        if (fixedChunkSize == 0) { //wall time times workers approximates the cost of all evaluations
+            final double measured = (double) (System.nanoTime() - start) * Math.min(pool.getParallelism(), remaining) / remaining;
+            nanosPerEvaluation = 0.7 * nanosPerEvaluation + 0.3 * Math.max(1, measured);
+        }
+    }
+
+    /**
+     * @return chromosomes per chunk, at least 1, at most so many that every worker gets CHUNKS_PER_WORKER chunks
+     */
+    int chunkSize(int amount) {
+        if (fixedChunkSize > 0) return fixedChunkSize;
+        final int byCost = (int) Math.min(Integer.MAX_VALUE, Math.max(1, (long) (targetChunkNanos / nanosPerEvaluation)));
+        final int byBalance = Math.max(1, amount / (pool.getParallelism() * CHUNKS_PER_WORKER));
+        return Math.min(byCost, byBalance);
+    }
+
+    private static class EvaluationTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final List<Chromosome> chromosomes;
+        private final int from;
+        private final int to;
+        private final int chunkSize;
+
+        EvaluationTask(List<Chromosome> chromosomes, int from, int to, int chunkSize) {
+            this.chromosomes = chromosomes;
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= chunkSize) {
+                for (int i = from; i < to; i++) {
+                    chromosomes.get(i).evaluate();
+                }
+                return;
+            }
+            final int middle = (from + to) >>> 1;
+            invokeAll(new EvaluationTask(chromosomes, from, middle, chunkSize),
+                    new EvaluationTask(chromosomes, middle, to, chunkSize));
+        }
+    }
+}
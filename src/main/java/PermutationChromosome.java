@@ -0,0 +1,116 @@
+/**
+ * Chromosome whose gene is a permutation of 0..length-1, i.e. a tour through length cities.
+ * Next to the tour it keeps an inverse index, position[allele] is the index of the allele in the tour,
+ * so successor, predecessor and position lookups are O(1).
+ *
+ * The index is built lazily on the first lookup and kept in sync by swap().
+ * Writing into getIntGene() directly invalidates it, call invalidatePositions() afterwards.
+ * swap() copies the tour before its first write, so chromosomes sharing the tour are not changed.
+ */
+public abstract class PermutationChromosome extends IntChromosome {
+    private int[] position;
+    private boolean positionValid;
+    private boolean ownsTour;
+
+    /**
+     * Constructor taking an int array holding a permutation as gene. The array is not copied.
+     * Fitness is calculated lazily.
+     *
+     * @param tour permutation of 0..tour.length-1
+     */
+    public PermutationChromosome(int[] tour) {
+        super(tour);
+    }
+
+    public PermutationChromosome(int[] tour, double fitness) {
+        super(tour, fitness);
+    }
+
+    /**
+     * @param allele value in the tour
+     * @return index of the allele in the tour
+     */
+    public int positionOf(int allele) {
+        return getPositions()[allele];
+    }
+
+    /**
+     * The tour is a cycle, the successor of the last allele is the first one.
+     *
+     * @param allele value in the tour
+     * @return allele following the allele in the tour
+     */
+    public int successor(int allele) {
+        final int i = positionOf(allele) + 1;
+        return getAllele(i == getGeneLength() ? 0 : i);
+    }
+
+    /**
+     * The tour is a cycle, the predecessor of the first allele is the last one.
+     *
+     * @param allele value in the tour
+     * @return allele preceding the allele in the tour
+     */
+    public int predecessor(int allele) {
+        final int i = positionOf(allele);
+        return getAllele(i == 0 ? getGeneLength() - 1 : i - 1);
+    }
+
+    /**
+     * Swaps the alleles at index i and j of the tour, and their positions in the index.
+     * The first swap copies the tour (copy-on-write), the gene may be shared with other chromosomes.
+     * The fitness is recalculated lazily.
+     *
+     * @param i index in the tour
+     * @param j index in the tour
+     */
+    public void swap(int i, int j) {
+        if (!ownsTour) {
+            final boolean valid = positionValid;
+            setGene(copyGene(), 0, getGeneLength());
+            positionValid = valid; //the copy has the same alleles
+            ownsTour = true;
+        }
+        invalidateFitness();
+        final int[] tour = getIntGene();
+        final int offset = getGeneOffset();
+        final int a = tour[offset + i];
+        final int b = tour[offset + j];
+        tour[offset + i] = b;
+        tour[offset + j] = a;
+        if (positionValid) {
+            position[a] = j;
+            position[b] = i;
+        }
+    }
+
+    /**
+     * Marks the position index as outdated, it is rebuilt on the next lookup.
+     */
+    public void invalidatePositions() {
+        positionValid = false;
+    }
+
+    @Override
+    protected void setGene(int[] gene, int offset, int length) {
+        super.setGene(gene, offset, length);
+        positionValid = false;
+        ownsTour = false;
+    }
+
+    private int[] getPositions() {
+        if (!positionValid) {
+            final int length = getGeneLength();
+            if (position == null || position.length != length) {
+                position = new int[length];
+            }
+            final int[] tour = getIntGene();
+            final int offset = getGeneOffset();
+            for (int i = 0; i < length; i++) {
+                position[tour[offset + i]] = i;
+            }
+            positionValid = true;
+        }
+        return position;
+    }
+}
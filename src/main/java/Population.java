@@ -5,9 +5,15 @@ import java.util.stream.IntStream;
 
 /**
  * Created by yay on 12.10.2016.
+ *
+ * @param <C> class of the chromosomes, it types the genome, i.e. SalesmanPath with its int[] tour.
+ *            The generator creates them, crossover and mutation keep the class of the parents through createChild(),
+ *            so getChromosomeList(), getMaxFittest() and getMinFittest() hand out C.
  */
-public abstract class Population<E extends Number> {
+public abstract class Population<C extends Chromosome> {
     private static Logger LOGGER = Logger.getLogger(Population.class.getName());
+    private static final FunctionalEvolutionInterface EVOLVE_TO_MAX = newEvolveToMax();
+    private static final FunctionalEvolutionInterface EVOLVE_TO_MIN = newEvolveToMin();
 
     private int populationSize;
     private double elitismRate;
@@ -20,8 +26,14 @@ public abstract class Population<E extends Number> {
     private FunctionalSelectionInterface selectionInterface;
     private FunctionalCrossoverInterface crossoverInterface;
     private FunctionalMutationInterface mutationInterface;
-    private FunctionalChromosomeGenerator chromosomeGenerator;
+    private FunctionalChromosomeGenerator<? extends C> chromosomeGenerator;
     private FunctionalEvolutionInterface evolutionInterface;
+    private FunctionalFitnessBatchInterface fitnessBatchInterface = sequentialEvaluation();
+    private PopulationStorage storage;
+    private Chromosome maxFittest;
+    private Chromosome minFittest;
+    private HallOfFame hallOfFame;
+    private volatile int storageGeneration;
 
     public FunctionalEvolutionInterface getEvolutionInterface() {
         return evolutionInterface;
@@ -39,9 +51,48 @@ public abstract class Population<E extends Number> {
         return selectionInterface;
     }
 
-    public FunctionalChromosomeGenerator getChromosomeGenerator() {
+    public FunctionalChromosomeGenerator<? extends C> getChromosomeGenerator() {
         return chromosomeGenerator;
     }
+
+    public FunctionalFitnessBatchInterface getFitnessBatchInterface() {
+        return fitnessBatchInterface;
+    }
+
+    /**
+     * Sets the evaluation stage the evolutionInterface runs on every new generation, i.e. parallelEvaluation().
+     *
+     * @param fitnessBatchInterface evaluation of a generation
+     */
+    public void setFitnessBatchInterface(FunctionalFitnessBatchInterface fitnessBatchInterface) {
+        this.fitnessBatchInterface = fitnessBatchInterface;
+    }
+
+    /**
+     * Sets a hall of fame the best chromosomes of every generation are offered to.
+     * Only the best hallOfFame.getCapacity() of a generation are offered.
+     *
+     * @param hallOfFame hall of fame, or null to stop offering
+     */
+    public void setHallOfFame(HallOfFame hallOfFame) {
+        this.hallOfFame = hallOfFame;
+        if (hallOfFame != null && chromosomeList != null) {
+            trackGeneration();
+        }
+    }
+
+    public HallOfFame getHallOfFame() {
+        return hallOfFame;
+    }
+
+    /**
+     * Abandons the evaluation of the generation evolve() is building, if the evaluation stage supports it.
+     * Can be called from another thread.
+     */
+    public void cancelEvaluation() {
+        fitnessBatchInterface.cancel();
+    }
+
     /**
      * Abstract constructor for a new Instance of Population.
      * Throws {@link IllegalArgumentException} if the mutationRate and crossoverRate are not between 0 and 1.
@@ -68,7 +119,7 @@ public abstract class Population<E extends Number> {
             double mutationRate,
             double crossoverRate,
             double elitismRate,
-            FunctionalChromosomeGenerator chromosomeGenerator,
+            FunctionalChromosomeGenerator<? extends C> chromosomeGenerator,
             FunctionalSelectionInterface selectionInterface,
             FunctionalCrossoverInterface crossoverInterface,
             FunctionalMutationInterface mutationInterface,
@@ -89,7 +140,45 @@ public abstract class Population<E extends Number> {
         for (int i = 0; i < populationSize; i++) {
             chromosomeList.add(chromosomeGenerator.generateRandomChromosome());
         }
-        Collections.sort(chromosomeList);
+        FitnessIndex.sort(chromosomeList);
+        trackGeneration();
+    }
+
+    /**
+     * Constructor for a population stored in an {@link OffHeapPopulationArena}.
+     * The first generation was generated by the storage, evolve() evolves the storage directly
+     * and the chromosomeList is the read-only list of its records.
+     * The storage runs elitism, crossover and mutation only, the evolutionInterface is evolveToMax() or evolveToMin(),
+     * depending on storage.isMaximize(). C has to be the class of the chromosomes the generator of the storage creates.
+     * Throws {@link IllegalArgumentException} if crossover and mutation are no FunctionalIntCrossoverInterface and FunctionalIntMutationInterface.
+     *
+     * @param storage off-heap storage holding the first generation
+     */
+    protected Population(
+            String id,
+            double mutationRate,
+            double crossoverRate,
+            double elitismRate,
+            FunctionalSelectionInterface selectionInterface,
+            FunctionalIntCrossoverInterface crossoverInterface,
+            FunctionalIntMutationInterface mutationInterface,
+            OffHeapPopulationArena storage
+    ) throws IllegalArgumentException {
+        if (crossoverInterface == null || mutationInterface == null) {
+            throw new IllegalArgumentException("Off-heap populations need a FunctionalIntCrossoverInterface and a FunctionalIntMutationInterface.");
+        }
+        this.id = id;
+        this.populationSize = storage.getPopulationSize();
+        this.mutationRate = mutationRate;
+        this.crossoverRate = crossoverRate;
+        this.elitismRate = elitismRate;
+        this.selectionInterface = selectionInterface;
+        this.crossoverInterface = crossoverInterface;
+        this.mutationInterface = mutationInterface;
+        this.evolutionInterface = storage.isMaximize() ? EVOLVE_TO_MAX : EVOLVE_TO_MIN;
+        this.storage = storage;
+        this.chromosomeList = storage.getChromosomeList();
+        trackGeneration();
     }
 
 
@@ -143,18 +232,41 @@ public abstract class Population<E extends Number> {
      *
      * @return
      */
-    public List<Chromosome> getChromosomeList() {
-        return this.chromosomeList;
+    public List<C> getChromosomeList() {
+        return typed(this.chromosomeList);
+    }
+
+    /**
+     * Returns a list of the current generation for other threads, i.e. {@link GeneticProducer}.
+     * That is the chromosomeList itself, evolve() does not change it.
+     * In storage mode it is a lazy list, every get() reads the row into a new chromosome, nothing is copied up front.
+     * The rows are overwritten by the next evolve(), after it get() throws an {@link IllegalStateException}.
+     * Use getAverageFitness(), getMaxFittest() and getMinFittest() for values that outlive the generation.
+     *
+     * @return list of the current generation
+     */
+    public List<C> getChromosomeListSnapshot() {
+        return storage == null ? typed(chromosomeList) : typed(new RowSnapshot(storageGeneration));
+    }
+
+    /**
+     * The list only holds chromosomes of the generator's class and their children, see the class doc.
+     */
+    @SuppressWarnings("unchecked")
+    private List<C> typed(List<Chromosome> chromosomeList) {
+        return (List<C>) (List<?>) chromosomeList;
     }
 
     /**
-     * Gets the highest fitness value Chromosome. The Population List has to be sorted,
-     * but it always should be sorted in the first place. Then we can grab the last index Chromosome.
+     * Gets the highest fitness value Chromosome, O(1). It is tracked when a generation is set,
+     * the Population List is sorted, so it is the last index Chromosome.
+     * In storage mode it is a copy of the row, not changed by evolve().
      *
      * @return highest fitness value Chromosome
      */
-    public Chromosome getMaxFittest() {
-        return getMaxFittest(chromosomeList);
+    @SuppressWarnings("unchecked")
+    public C getMaxFittest() {
+        return (C) maxFittest;
     }
 
     public static Chromosome getMaxFittest(List<Chromosome> chromosomeList) {
@@ -162,20 +274,75 @@ public abstract class Population<E extends Number> {
     }
 
     /**
-     * Gets the lowest fitness value Chromosome. The Population List has to be sorted,
-     * but it always should be sorted in the first place. Then we can grab the last index Chromosome.
+     * Gets the lowest fitness value Chromosome, O(1). It is tracked when a generation is set,
+     * the Population List is sorted, so it is the first index Chromosome.
+     * In storage mode it is a copy of the row, not changed by evolve().
      *
      * @return lowest fitness Chromosome
      */
-    public Chromosome getMinFittest() {
-        return getMinFittest(chromosomeList);
+    @SuppressWarnings("unchecked")
+    public C getMinFittest() {
+        return (C) minFittest;
     }
 
     public static Chromosome getMinFittest(List<Chromosome> chromosomeList) {
-        Collections.sort(chromosomeList);
-        return chromosomeList.get(0);
+        return Collections.min(chromosomeList);
     }
 
+    /**
+     * Tracks the fittest and least fit chromosome of the current generation and offers the best to the hall of fame.
+     * A sorted list has them at its ends, chromosomes without an exact fitness are skipped.
+     * The fitness array of a storage is scanned once for both, so only the two rows have to be read as chromosomes.
+     */
+    private void trackGeneration() {
+        if (storage != null) {
+            final double[] fitness = storage.getFitness();
+            int max = 0;
+            int min = 0;
+            for (int i = 1; i < populationSize; i++) {
+                if (fitness[i] > fitness[max]) max = i;
+                if (fitness[i] < fitness[min]) min = i;
+            }
+            maxFittest = HallOfFame.snapshot(chromosomeList.get(max)); //the rows are overwritten by the next evolve()
+            minFittest = HallOfFame.snapshot(chromosomeList.get(min));
+        } else { //the ends without estimates, the list is sorted
+            final List<Chromosome> lowest = elites(chromosomeList, 1, false);
+            final List<Chromosome> highest = elites(chromosomeList, 1, true);
+            minFittest = lowest.isEmpty() ? chromosomeList.get(0) : lowest.get(0);
+            maxFittest = highest.isEmpty() ? chromosomeList.get(chromosomeList.size() - 1) : highest.get(0);
+        }
+        if (hallOfFame == null) return;
+        final int amount = Math.min(hallOfFame.getCapacity(), chromosomeList.size());
+        final List<Chromosome> bestFirst;
+        if (storage != null) {
+            bestFirst = new ArrayList<>(amount);
+            for (int row : new FitnessIndex(storage.getFitness(), populationSize).best(amount, hallOfFame.isMaximize())) {
+                bestFirst.add(chromosomeList.get(row));
+            }
+        } else {
+            bestFirst = elites(chromosomeList, amount, hallOfFame.isMaximize());
+            if (hallOfFame.isMaximize()) Collections.reverse(bestFirst);
+        }
+        hallOfFame.offerAll(bestFirst);
+    }
+
+
+    /**
+     * Calculates the average fitness value of the current generation, from the fitness array in storage mode.
+     *
+     * @return average fitness value
+     */
+    public double getAverageFitness() {
+        if (storage == null) {
+            return getAverageFitness(chromosomeList);
+        }
+        final double[] fitness = storage.getFitness();
+        double sum = 0;
+        for (int i = 0; i < populationSize; i++) {
+            sum += fitness[i];
+        }
+        return sum / populationSize;
+    }
 
     /**
      * Calculates the average fitness value of the complete population
@@ -192,89 +359,62 @@ public abstract class Population<E extends Number> {
 
     /**
      * Sets a new chromosomeList if the new length is the same as the old populationSize.
-     * Sorts the new List.
+     * Sorts the new List with a radix sort of its fitness values, see {@link FitnessIndex}.
      *
      * @param chromosomeList
      * @throws IllegalArgumentException
      */
     public void setChromosomeList(List<Chromosome> chromosomeList) throws IllegalArgumentException {
+        if (storage != null) {
+            throw new IllegalStateException("The chromosomeList of a population in arena mode can't be replaced.");
+        }
         this.chromosomeList = chromosomeList;
-        Collections.sort(chromosomeList);
+        FitnessIndex.sort(chromosomeList);
+        trackGeneration();
     }
 
     /**
-     * Sums all fitness values, gets a random double multiplicated with the sum.
-     * Uses that value as selection value, loops through all fitnesses and substracts the fitness of each index.
-     * Once the selection value is smaller than 0, we return the current index.
-     * If value never gets below 0, we return last index.
+     * Selects with a chance proportional to the fitness value, for maximized non negative fitness.
+     * The roulette wheel is built once per generation, a selection is O(1).
      *
      * @return FunctionalSelectionInterface to be used as a parameter for the selectParents() method
      */
-    public static FunctionalSelectionInterface rouletteSelect() {
-        return chromosomeList1 -> {
-            int[] fitnessArray = new int[chromosomeList1.size()];
-            for (int i = 0; i < chromosomeList1.size(); i++) {
-                fitnessArray[i] = (int) chromosomeList1.get(i).getFitness();
-            }
-            int fitnessSum = IntStream.of(fitnessArray).sum();
-
-            double select = ThreadLocalRandom.current().nextDouble() * fitnessSum;
-            for (int i = 0; i < chromosomeList1.size(); i++) {
-                select -= fitnessArray[i];
-                if (select <= 0) return i;
-            }
-            return chromosomeList1.size() - 1;
-        };
+    public static FunctionalFitnessSelectionInterface rouletteSelect() {
+        return rouletteSelect(true, RouletteSelection.Scaling.NONE);
     }
 
-    public static FunctionalSelectionInterface tournamentSelectMin(int tournamentSize) {
-        return chromosomeList1 -> {
-            List<Integer> shuffledIndexes = new ArrayList<>();
-            for (int i = 0; i < chromosomeList1.size(); i++) {
-                shuffledIndexes.add(i);
-            }
-            Collections.shuffle(shuffledIndexes);
-
-            Map<Chromosome, Integer> candidates = new HashMap<>();
-            for (int i = 0; i < tournamentSize; i++) {
-                candidates.put(chromosomeList1.get(shuffledIndexes.get(i)), shuffledIndexes.get(i));
-            }
-            List<Chromosome> sortedCandidates = new ArrayList<>();
-            candidates.forEach((V, K) -> {
-                sortedCandidates.add(V);
-            });
-            Collections.sort(sortedCandidates);
-            return candidates.get(sortedCandidates.get(0));
-        };
+    /**
+     * Selects with a chance proportional to the scaled fitness value.
+     * Windowing, sigma and linear scaling work for negative and minimized fitness.
+     *
+     * @param maximize true if a higher fitness is better
+     * @param scaling  scaling of the fitness values to weights
+     * @return FunctionalSelectionInterface to be used as a parameter for the selectParents() method
+     */
+    public static FunctionalFitnessSelectionInterface rouletteSelect(boolean maximize, RouletteSelection.Scaling scaling) {
+        return new RouletteSelection(maximize, scaling);
     }
 
     /**
      * Selects a Chromosome via tournament of size tournamentSize.
-     * Select n candidates, and get the index of the fittest.
+     * Select n distinct candidates, and get the index of the one with the lowest fitness.
      *
      * @param tournamentSize amount of candidates to choose from
      * @return index in the populationArray of the chosen Chromosome
      */
-    public static FunctionalSelectionInterface tournamentSelectMax(int tournamentSize) {
-        return (chromosomeList) -> {
-            List<Integer> shuffledIndexes = new ArrayList<>();
-            for (int i = 0; i < chromosomeList.size(); i++) {
-                shuffledIndexes.add(i);
-            }
-            Collections.shuffle(shuffledIndexes);
+    public static FunctionalFitnessSelectionInterface tournamentSelectMin(int tournamentSize) {
+        return new TournamentSelection(false, tournamentSize);
+    }
 
-            Map<Chromosome, Integer> candidates = new HashMap<>();
-            for (int i = 0; i < tournamentSize; i++) {
-                candidates.put(chromosomeList.get(shuffledIndexes.get(i)), shuffledIndexes.get(i));
-            }
-            List<Chromosome> sortedCandidates = new ArrayList<>();
-            candidates.forEach((V, K) -> {
-                sortedCandidates.add(V);
-            });
-            Collections.sort(sortedCandidates);
-            Collections.reverse(sortedCandidates);
-            return candidates.get(sortedCandidates.get(0));
-        };
+    /**
+     * Selects a Chromosome via tournament of size tournamentSize.
+     * Select n distinct candidates, and get the index of the fittest.
+     *
+     * @param tournamentSize amount of candidates to choose from
+     * @return index in the populationArray of the chosen Chromosome
+     */
+    public static FunctionalFitnessSelectionInterface tournamentSelectMax(int tournamentSize) {
+        return new TournamentSelection(true, tournamentSize);
     }
 
     public static FunctionalReplicationInterface replicationInterfaceTournament(int tournamentSize) {
@@ -293,10 +433,25 @@ public abstract class Population<E extends Number> {
     }
 
 
-    public static FunctionalSelectionInterface rankBasedSelectMax(List<Double> cumulativeRankList) {
-        return chromosomeList1 -> {
+    /**
+     * Linear rank based selection, the position in the ascending sorted list is the rank.
+     * The cumulative chances are cached per population size, a selection is a binary search.
+     *
+     * @param s selection pressure, 1 to 2
+     * @return FunctionalFitnessSelectionInterface
+     */
+    public static FunctionalFitnessSelectionInterface rankBasedSelectMax(double s) {
+        return new RankSelection(s);
+    }
+
+    /**
+     * Rank based selection on a list of cumulative chances, see getRankSelectionList().
+     * Scans the list linearly, rankBasedSelectMax(s) caches the chances and searches them binary.
+     */
+    public static FunctionalFitnessSelectionInterface rankBasedSelectMax(List<Double> cumulativeRankList) {
+        return (fitness, size) -> {
             final double select = ThreadLocalRandom.current().nextDouble();
-            for (int i = 0; i < chromosomeList1.size(); i++) {
+            for (int i = 0; i < size; i++) {
                 if (select <= cumulativeRankList.get(i)) {
                     return i;
                 }
@@ -305,11 +460,42 @@ public abstract class Population<E extends Number> {
         };
     }
 
+    /**
+     * Stochastic universal sampling: selectParents() picks all parents of a generation with one spin of an evenly spaced wheel.
+     *
+     * @param maximize true if a higher fitness is better
+     * @param scaling  scaling of the fitness values to weights, like for rouletteSelect()
+     * @return FunctionalFitnessSelectionInterface
+     */
+    public static FunctionalFitnessSelectionInterface stochasticUniversalSampling(boolean maximize, RouletteSelection.Scaling scaling) {
+        return new StochasticUniversalSampling(maximize, scaling);
+    }
+
 
+
+    /**
+     * One point crossover at a random pivot point.
+     * {@link GeneChromosome} parents are crossed on whole words with Gene.onePointCrossover,
+     * other chromosomes allele by allele.
+     *
+     * @return FunctionalCrossoverInterface
+     */
     public static FunctionalCrossoverInterface onePointCrossover() {
         return parentChromosomeList -> {
             List<Chromosome> children = new ArrayList<>();
 
+            if (parentChromosomeList.get(0) instanceof GeneChromosome) {
+                final GeneChromosome first = (GeneChromosome) parentChromosomeList.get(0);
+                final GeneChromosome second = (GeneChromosome) parentChromosomeList.get(1);
+                final int pivotPoint = ThreadLocalRandom.current().nextInt(first.getBitGene().getLength());
+                final Gene[] childGenes = Gene.onePointCrossover(first.getBitGene(), second.getBitGene(), pivotPoint);
+                children.add(first.createChild(childGenes[0]));
+                children.add(second.createChild(childGenes[1]));
+                children.get(0).setParents(first, second);
+                children.get(1).setParents(second, first);
+                return children;
+            }
+
             final List<Number> chromosomeOneGene = parentChromosomeList.get(0).getGene();
             final List<Number> chromosomeTwoGene = parentChromosomeList.get(1).getGene();
             final int length = chromosomeOneGene.size();
@@ -329,11 +515,189 @@ public abstract class Population<E extends Number> {
 
             children.add(parentChromosomeList.get(0).createChild(newChromosomeOneGene));
             children.add(parentChromosomeList.get(1).createChild(newChromosomeTwoGene));
+            children.get(0).setParents(parentChromosomeList.get(0), parentChromosomeList.get(1));
+            children.get(1).setParents(parentChromosomeList.get(1), parentChromosomeList.get(0));
 
             return children;
         };
     }
 
+    /**
+     * One point crossover for {@link IntChromosome} genes. Copies the alleles with System.arraycopy, no boxing.
+     *
+     * @return FunctionalIntCrossoverInterface
+     */
+    public static FunctionalIntCrossoverInterface onePointIntCrossover() {
+        return (first, second, firstChild, firstChildOffset, secondChild, secondChildOffset) -> {
+            final int length = first.getGeneLength();
+            final int pivotPoint = ThreadLocalRandom.current().nextInt(length);
+            final int[] firstGene = first.getIntGene();
+            final int[] secondGene = second.getIntGene();
+
+            System.arraycopy(firstGene, first.getGeneOffset(), firstChild, firstChildOffset, pivotPoint);
+            System.arraycopy(secondGene, second.getGeneOffset(), secondChild, secondChildOffset, pivotPoint);
+            System.arraycopy(secondGene, second.getGeneOffset() + pivotPoint, firstChild, firstChildOffset + pivotPoint, length - pivotPoint);
+            System.arraycopy(firstGene, first.getGeneOffset() + pivotPoint, secondChild, secondChildOffset + pivotPoint, length - pivotPoint);
+        };
+    }
+
+    /**
+     * One point crossover for {@link DoubleChromosome} genes. Copies the alleles with System.arraycopy, no boxing.
+     *
+     * @return FunctionalDoubleCrossoverInterface
+     */
+    public static FunctionalDoubleCrossoverInterface onePointDoubleCrossover() {
+        return (first, second, firstChild, firstChildOffset, secondChild, secondChildOffset) -> {
+            final int length = first.getGeneLength();
+            final int pivotPoint = ThreadLocalRandom.current().nextInt(length);
+            final double[] firstGene = first.getDoubleGene();
+            final double[] secondGene = second.getDoubleGene();
+
+            System.arraycopy(firstGene, first.getGeneOffset(), firstChild, firstChildOffset, pivotPoint);
+            System.arraycopy(secondGene, second.getGeneOffset(), secondChild, secondChildOffset, pivotPoint);
+            System.arraycopy(secondGene, second.getGeneOffset() + pivotPoint, firstChild, firstChildOffset + pivotPoint, length - pivotPoint);
+            System.arraycopy(firstGene, first.getGeneOffset() + pivotPoint, secondChild, secondChildOffset + pivotPoint, length - pivotPoint);
+        };
+    }
+
+    /**
+     * Swaps each allele with a random other allele with a chance equal to mutationRate.
+     * Keeps permutations valid.
+     *
+     * @return FunctionalIntMutationInterface
+     */
+    public static FunctionalIntMutationInterface swapIntMutation() {
+        return (gene, offset, length, mutationRate) -> {
+            for (int i = 0; i < length; i++) {
+                if (ThreadLocalRandom.current().nextFloat() < mutationRate) {
+                    int random = offset + ThreadLocalRandom.current().nextInt(length);
+                    int temp = gene[offset + i];
+                    gene[offset + i] = gene[random];
+                    gene[random] = temp;
+                }
+            }
+        };
+    }
+
+    /**
+     * Adds gaussian noise with standard deviation sigma to each allele with a chance equal to mutationRate.
+     *
+     * @param sigma standard deviation of the noise
+     * @return FunctionalDoubleMutationInterface
+     */
+    public static FunctionalDoubleMutationInterface gaussianDoubleMutation(double sigma) {
+        return (gene, offset, length, mutationRate) -> {
+            for (int i = offset; i < offset + length; i++) {
+                if (ThreadLocalRandom.current().nextFloat() < mutationRate) {
+                    gene[i] += ThreadLocalRandom.current().nextGaussian() * sigma;
+                }
+            }
+        };
+    }
+
+    /**
+     * Evaluates the unevaluated chromosomes one after the other on the calling thread.
+     *
+     * @return FunctionalFitnessBatchInterface
+     */
+    public static FunctionalFitnessBatchInterface sequentialEvaluation() {
+        return chromosomeList -> {
+            for (Chromosome chromosome : chromosomeList) {
+                chromosome.evaluate();
+            }
+        };
+    }
+
+    /**
+     * Evaluates the unevaluated chromosomes in parallel on the pool,
+     * in chunks sized by the measured cost of an evaluation.
+     *
+     * @param pool pool to evaluate on, i.e. ForkJoinPool.commonPool()
+     * @return FunctionalFitnessBatchInterface
+     */
+    public static FunctionalFitnessBatchInterface parallelEvaluation(ForkJoinPool pool) {
+        return new ParallelFitnessEvaluation(pool, ParallelFitnessEvaluation.DEFAULT_TARGET_CHUNK_NANOS, 0);
+    }
+
+    /**
+     * Evaluates the unevaluated chromosomes in parallel on the pool, in chunks of a fixed size.
+     *
+     * @param pool      pool to evaluate on
+     * @param chunkSize amount of chromosomes evaluated by one task
+     * @return FunctionalFitnessBatchInterface
+     */
+    public static FunctionalFitnessBatchInterface parallelEvaluation(ForkJoinPool pool, int chunkSize) {
+        return new ParallelFitnessEvaluation(pool, 0, chunkSize);
+    }
+
+    /**
+     * Looks up the unevaluated chromosomes in the cache first, only the misses are passed on to the evaluation.
+     * The cache can be shared by populations of the same problem.
+     *
+     * @param cache      fitness cache
+     * @param evaluation evaluation of the misses
+     * @return FunctionalFitnessBatchInterface
+     */
+    public static FunctionalFitnessBatchInterface cachedEvaluation(FitnessCache cache, FunctionalFitnessBatchInterface evaluation) {
+        return cache.cached(evaluation);
+    }
+
+    /**
+     * Evaluates the unevaluated chromosomes asynchronously on the executor. An evaluation running longer than
+     * the timeout gets the penalty fitness as an estimate, see Chromosome.setEstimatedFitness().
+     * Stragglers are started a second time once 90% of the generation is done.
+     *
+     * @param executor       executor the evaluations run on
+     * @param timeoutMillis  maximum time of one evaluation in milliseconds
+     * @param penaltyFitness fitness of timed out and cancelled chromosomes, i.e. the worst possible fitness
+     * @return FunctionalFitnessBatchInterface
+     */
+    public static FunctionalFitnessBatchInterface asyncEvaluation(ExecutorService executor, long timeoutMillis, double penaltyFitness) {
+        return asyncEvaluation(executor, timeoutMillis, penaltyFitness,
+                AsyncFitnessEvaluation.DEFAULT_SPECULATION_THRESHOLD, AsyncFitnessEvaluation.DEFAULT_SPECULATION_FACTOR);
+    }
+
+    /**
+     * Evaluates the unevaluated chromosomes asynchronously on the executor, with timeouts and speculative re-execution.
+     *
+     * @param executor             executor the evaluations run on
+     * @param timeoutMillis        maximum time of one evaluation in milliseconds
+     * @param penaltyFitness       fitness of timed out and cancelled chromosomes
+     * @param speculationThreshold fraction of a generation that has to be done before stragglers are started again, above 1 never
+     * @param speculationFactor    an evaluation is a straggler if it runs longer than this times the median evaluation time
+     * @return FunctionalFitnessBatchInterface
+     */
+    public static FunctionalFitnessBatchInterface asyncEvaluation(ExecutorService executor, long timeoutMillis, double penaltyFitness,
+                                                                  double speculationThreshold, double speculationFactor) {
+        return new AsyncFitnessEvaluation(executor, TimeUnit.MILLISECONDS.toNanos(timeoutMillis), penaltyFitness, speculationThreshold, speculationFactor);
+    }
+
+    /**
+     * Pre-screens the unevaluated chromosomes with a nearest neighbour model of the fitness,
+     * only the most promising evaluatedFraction of them is passed on to the evaluation.
+     *
+     * @param evaluation        true evaluation
+     * @param maximize          true if a higher fitness is better
+     * @param evaluatedFraction fraction of the unevaluated chromosomes that is truly evaluated, i.e. 0.25
+     * @return FunctionalFitnessBatchInterface
+     */
+    public static FunctionalFitnessBatchInterface surrogateEvaluation(FunctionalFitnessBatchInterface evaluation, boolean maximize, double evaluatedFraction) {
+        return new SurrogateFitnessEvaluation(evaluation, maximize, evaluatedFraction,
+                SurrogateFitnessEvaluation.DEFAULT_NEIGHBOURS, SurrogateFitnessEvaluation.DEFAULT_ARCHIVE_SIZE);
+    }
+
+    /**
+     * Evaluates the unevaluated chromosomes one after the other with a cutoff, the worst fitness still among the
+     * best survivorFraction of the batch. Chromosomes worse than it may stop their evaluation early.
+     *
+     * @param maximize         true if a higher fitness is better
+     * @param survivorFraction fraction of the batch the evolution keeps, i.e. 0.1 for a 10x10 replication
+     * @return FunctionalFitnessBatchInterface
+     */
+    public static FunctionalFitnessBatchInterface cutoffEvaluation(boolean maximize, double survivorFraction) {
+        return new CutoffFitnessEvaluation(maximize, survivorFraction);
+    }
+
     /*protected int tournamentSelectMin(int tournamentSize) {
         List<Integer> shuffledIndexes = new ArrayList<>();
         for (int i = 0; i < chromosomeList.size(); i++) {
@@ -359,17 +723,28 @@ public abstract class Population<E extends Number> {
      * The default methods evolveToMax and evolveToMin offer a good default evolve method.
      */
     public void evolve() {
+        if (storage != null) { //only evolveToMax() or evolveToMin() populations have a storage, see useArena()
+            storageGeneration++; //before the rows change, invalidates the snapshots
+            storage.evolve(selectionInterface, (FunctionalIntCrossoverInterface) crossoverInterface, (FunctionalIntMutationInterface) mutationInterface, elitismRate, crossoverRate, mutationRate);
+            trackGeneration();
+            return;
+        }
+        final List<Chromosome> previousGeneration = chromosomeList;
         setChromosomeList(
                 evolutionInterface.evolve(
-                        getChromosomeList(),
+                        previousGeneration,
                         crossoverInterface,
                         selectionInterface,
                         mutationInterface,
+                        fitnessBatchInterface,
                         elitismRate,
                         crossoverRate,
                         mutationRate
                 )
         );
+        for (Chromosome chromosome : previousGeneration) { //the new generation links to them, drop their own parents
+            chromosome.setParents(null, null);
+        }
     }
 
     public int evolveLoop(double maxFitness, int maxGenertaions) {
@@ -391,40 +766,48 @@ public abstract class Population<E extends Number> {
      * Selection of Parents for crossover and mutation methods or defined in mutate() and selectParents()
      */
     protected static FunctionalEvolutionInterface evolveToMax() {
-        return (chromosomeList, crossoverInterface, selectionInterface, mutationInterface, elitismRate, crossoverRate, mutationRate) -> {
-            List<Chromosome> nextGeneration = new ArrayList<>();
+        return EVOLVE_TO_MAX;
+    }
+
+    private static FunctionalEvolutionInterface newEvolveToMax() {
+        return (chromosomeList, crossoverInterface, selectionInterface, mutationInterface, fitnessBatchInterface, elitismRate, crossoverRate, mutationRate) -> {
+            final MatingPool mating = new MatingPool(selectionInterface, chromosomeList, (int) (crossoverRate * chromosomeList.size() / 2) + 1);
+            List<Chromosome> nextGeneration = new ArrayList<>(chromosomeList.size());
+            final List<Chromosome> parents = new ArrayList<>(2);
+            final List<Chromosome> temp = new ArrayList<>(1);
             List<Chromosome> protectedChromosomes = new ArrayList<>();
             int idx = 0;
             if (elitismRate > 0) {
                 idx = (int) (elitismRate * chromosomeList.size());
-                chromosomeList.subList(chromosomeList.size() - idx, chromosomeList.size()).forEach((c) -> protectedChromosomes.add(c));
+                protectedChromosomes.addAll(elites(chromosomeList, idx, true));
             }
             int i = 0;
             while (i < chromosomeList.size()) {
                 if (ThreadLocalRandom.current().nextFloat() <= crossoverRate) { //crossover?
-                    List<Chromosome> parents = new ArrayList<>();
-                    parents.add(chromosomeList.get(selectionInterface.select(chromosomeList)));
-                    parents.add(chromosomeList.get(selectionInterface.select(chromosomeList)));
+                    parents.clear();
+                    parents.add(chromosomeList.get(mating.next()));
+                    parents.add(chromosomeList.get(mating.next()));
 
                     List<Chromosome> children = crossoverInterface.crossover(parents);
                     for (Chromosome c : children) { //add children if there is enough space in new population array
                         if (i < chromosomeList.size()) {
-                            List<Chromosome> temp = new ArrayList<>();
+                            temp.clear();
                             temp.add(c);
                             nextGeneration.add(mutationInterface.mutate(temp, mutationRate).get(0));
                             i++;
                         }
                     }
                 } else {
-                    List<Chromosome> temp = new ArrayList<>();
+                    temp.clear();
                     temp.add(chromosomeList.get(ThreadLocalRandom.current().nextInt(chromosomeList.size())));
                     nextGeneration.add(mutationInterface.mutate(temp, mutationRate).get(0));
                     i++;
                 }
             }
-            Collections.sort(nextGeneration);
-            if (protectedChromosomes.size() != 0) {
-                IntStream.range(0, protectedChromosomes.size()).forEach((j) -> nextGeneration.set(j, protectedChromosomes.get(j)));
+            fitnessBatchInterface.evaluate(nextGeneration);
+            if (protectedChromosomes.size() != 0) { //replace the worst, the list is sorted by setChromosomeList() anyway
+                final int[] worst = FitnessIndex.of(nextGeneration).best(protectedChromosomes.size(), false);
+                IntStream.range(0, worst.length).forEach((j) -> nextGeneration.set(worst[j], protectedChromosomes.get(j)));
             }
             return (nextGeneration);
         };
@@ -438,60 +821,71 @@ public abstract class Population<E extends Number> {
      * Selection of Parents for crossover and mutation methods or defined in mutate() and selectParents()
      */
     public static FunctionalEvolutionInterface evolveToMin() {
-        return (chromosomeList, crossoverInterface, selectionInterface, mutationInterface, elitismRate, crossoverRate, mutationRate) -> {
-            List<Chromosome> nextGeneration = new ArrayList<>();
-            int i = (int) (elitismRate * chromosomeList.size());
-            chromosomeList.subList(0, i).forEach((c) -> nextGeneration.add(c));
+        return EVOLVE_TO_MIN;
+    }
+
+    private static FunctionalEvolutionInterface newEvolveToMin() {
+        return (chromosomeList, crossoverInterface, selectionInterface, mutationInterface, fitnessBatchInterface, elitismRate, crossoverRate, mutationRate) -> {
+            final MatingPool mating = new MatingPool(selectionInterface, chromosomeList, (int) (crossoverRate * chromosomeList.size() / 2) + 1);
+            List<Chromosome> nextGeneration = new ArrayList<>(chromosomeList.size());
+            final List<Chromosome> parents = new ArrayList<>(2);
+            final List<Chromosome> temp = new ArrayList<>(1);
+            nextGeneration.addAll(elites(chromosomeList, (int) (elitismRate * chromosomeList.size()), false));
+            int i = nextGeneration.size();
 
             while (i < chromosomeList.size()) {
                 if (ThreadLocalRandom.current().nextFloat() <= crossoverRate) { //crossover?
 
-                    List<Chromosome> parents = new ArrayList<>();
-                    parents.add(chromosomeList.get(selectionInterface.select(chromosomeList)));
-                    parents.add(chromosomeList.get(selectionInterface.select(chromosomeList)));
+                    parents.clear();
+                    parents.add(chromosomeList.get(mating.next()));
+                    parents.add(chromosomeList.get(mating.next()));
 
                     List<Chromosome> children = crossoverInterface.crossover(parents);
                     for (Chromosome c : children) { //add children if there is enough space in new population array
                         if (i < chromosomeList.size()) {
-                            List<Chromosome> temp = new ArrayList<>();
+                            temp.clear();
                             temp.add(c);
                             nextGeneration.add(mutationInterface.mutate(temp, mutationRate).get(0));
                             i++;
                         }
                     }
                 } else {
-                    List<Chromosome> temp = new ArrayList<>();
+                    temp.clear();
                     temp.add(chromosomeList.get(ThreadLocalRandom.current().nextInt(chromosomeList.size())));
                     nextGeneration.add(mutationInterface.mutate(temp, mutationRate).get(0));
                     i++;
 
                 }
             }
+            fitnessBatchInterface.evaluate(nextGeneration);
             return nextGeneration;
         };
     }
 
     public static FunctionalEvolutionInterface evolveToMaxAndTournamentReplicate(int tournamentSize) {
-        return (chromosomeList, crossoverInterface, selectionInterface, mutationInterface, elitismRate, crossoverRate, mutationRate) -> {
-            List<Chromosome> nextGeneration = new ArrayList<>();
+        return (chromosomeList, crossoverInterface, selectionInterface, mutationInterface, fitnessBatchInterface, elitismRate, crossoverRate, mutationRate) -> {
+            final MatingPool mating = new MatingPool(selectionInterface, chromosomeList, (int) (crossoverRate * chromosomeList.size() / 2) + 1);
+            List<Chromosome> nextGeneration = new ArrayList<>(chromosomeList.size());
+            final List<Chromosome> parents = new ArrayList<>(2);
+            final List<Chromosome> temp = new ArrayList<>(1);
             int idx = 0;
             List<Chromosome> protectedChromosomes = new ArrayList<>();
             if (elitismRate > 0) {
                 idx = (int) (elitismRate * chromosomeList.size());
-                chromosomeList.subList(chromosomeList.size() - idx, chromosomeList.size()).forEach((c) -> protectedChromosomes.add(c));
+                protectedChromosomes.addAll(elites(chromosomeList, idx, true));
             }
             int i = 0;
             int max = (int) (chromosomeList.size() * crossoverRate);
             while (i < max) {
                 //if (ThreadLocalRandom.current().nextFloat() <= crossoverRate) { //crossover?
-                List<Chromosome> parents = new ArrayList<>();
-                parents.add(chromosomeList.get(selectionInterface.select(chromosomeList)));
-                parents.add(chromosomeList.get(selectionInterface.select(chromosomeList)));
+                parents.clear();
+                parents.add(chromosomeList.get(mating.next()));
+                parents.add(chromosomeList.get(mating.next()));
 
                 List<Chromosome> children = crossoverInterface.crossover(parents);
                 for (Chromosome c : children) { //add children if there is enough space in new population array
                     if (i < max) {
-                        List<Chromosome> temp = new ArrayList<>();
+                        temp.clear();
                         temp.add(c);
                         nextGeneration.add(mutationInterface.mutate(temp, mutationRate).get(0));
                         i++;
@@ -501,12 +895,13 @@ public abstract class Population<E extends Number> {
                 //}
             }
             while (nextGeneration.size() < chromosomeList.size()) {
-                List<Chromosome> temp = new ArrayList<>();
+                temp.clear();
                 temp.add(chromosomeList.get(ThreadLocalRandom.current().nextInt(chromosomeList.size())));
                 nextGeneration.add(mutationInterface.mutate(temp, mutationRate).get(0));
             }
+            fitnessBatchInterface.evaluate(nextGeneration);
             List<Chromosome> nextGenerationReplicated = replicationInterfaceTournament(tournamentSize).replicate(nextGeneration);
-            Collections.sort(nextGeneration);
+            FitnessIndex.sort(nextGeneration);
             //System.out.println(nextGeneration.size() + ":" + protectedChromosomes.size());
             if (protectedChromosomes.size() != 0) {
                 IntStream.range(0, protectedChromosomes.size()).forEach((j) -> nextGeneration.set(j, protectedChromosomes.get(j)));
@@ -516,26 +911,30 @@ public abstract class Population<E extends Number> {
     }
 
     public static FunctionalEvolutionInterface evolveToMaxAndRankBasedReplicate(double s) {
-        return (chromosomeList, crossoverInterface, selectionInterface, mutationInterface, elitismRate, crossoverRate, mutationRate) -> {
-            List<Chromosome> nextGeneration = new ArrayList<>();
+        final RankSelection rankSelection = new RankSelection(s);
+        return (chromosomeList, crossoverInterface, selectionInterface, mutationInterface, fitnessBatchInterface, elitismRate, crossoverRate, mutationRate) -> {
+            final MatingPool mating = new MatingPool(selectionInterface, chromosomeList, (int) (crossoverRate * chromosomeList.size() / 2) + 1);
+            List<Chromosome> nextGeneration = new ArrayList<>(chromosomeList.size());
+            final List<Chromosome> parents = new ArrayList<>(2);
+            final List<Chromosome> temp = new ArrayList<>(1);
             int idx = 0;
             List<Chromosome> protectedChromosomes = new ArrayList<>();
             if (elitismRate > 0) {
                 idx = (int) (elitismRate * chromosomeList.size());
-                chromosomeList.subList(chromosomeList.size() - idx, chromosomeList.size()).forEach((c) -> protectedChromosomes.add(c));
+                protectedChromosomes.addAll(elites(chromosomeList, idx, true));
             }
             int i = 0;
             int max = (int) (chromosomeList.size() * crossoverRate);
             while (i < max) {
                 //if (ThreadLocalRandom.current().nextFloat() <= crossoverRate) { //crossover?
-                List<Chromosome> parents = new ArrayList<>();
-                parents.add(chromosomeList.get(selectionInterface.select(chromosomeList)));
-                parents.add(chromosomeList.get(selectionInterface.select(chromosomeList)));
+                parents.clear();
+                parents.add(chromosomeList.get(mating.next()));
+                parents.add(chromosomeList.get(mating.next()));
 
                 List<Chromosome> children = crossoverInterface.crossover(parents);
                 for (Chromosome c : children) { //add children if there is enough space in new population array
                     if (i < max) {
-                        List<Chromosome> temp = new ArrayList<>();
+                        temp.clear();
                         temp.add(c);
                         nextGeneration.add(mutationInterface.mutate(temp, mutationRate).get(0));
                         i++;
@@ -545,23 +944,16 @@ public abstract class Population<E extends Number> {
                 //}
             }
             while (nextGeneration.size() < chromosomeList.size()) {
-                List<Chromosome> temp = new ArrayList<>();
+                temp.clear();
                 temp.add(chromosomeList.get(ThreadLocalRandom.current().nextInt(chromosomeList.size())));
                 nextGeneration.add(mutationInterface.mutate(temp, mutationRate).get(0));
             }
+            fitnessBatchInterface.evaluate(nextGeneration);
             List<Chromosome> nextGenerationReplicated = new ArrayList<>();
-            Collections.sort(nextGeneration);
-            List<Double> rankSelectionList = getRankSelectionList(nextGeneration, s);
+            FitnessIndex.sort(nextGeneration);
             while (nextGenerationReplicated.size() < nextGeneration.size()) {
-                double select = ThreadLocalRandom.current().nextDouble();
-                for (int j = 0; j < nextGeneration.size(); j++) {
-                    if (select <= rankSelectionList.get(j)) {
-                        nextGenerationReplicated.add(nextGeneration.get(j));
-                        break;
-                    }
-                }
+                nextGenerationReplicated.add(nextGeneration.get(rankSelection.select(nextGeneration)));
             }
-            Collections.sort(nextGeneration);
             //System.out.println(nextGeneration.size() + ":" + protectedChromosomes.size());
             if (protectedChromosomes.size() != 0) {
                 IntStream.range(0, protectedChromosomes.size()).forEach((j) -> nextGeneration.set(j, protectedChromosomes.get(j)));
@@ -570,6 +962,28 @@ public abstract class Population<E extends Number> {
         };
     }
 
+    /**
+     * Takes the elites from one end of a sorted generation, skipping chromosomes without an exact fitness,
+     * i.e. surrogate estimates, see {@link Chromosome#isFitnessBound()}.
+     *
+     * @param sorted  generation sorted ascending by fitness
+     * @param amount  amount of elites
+     * @param fromEnd true to take the highest fitness values, false the lowest
+     * @return new list of at most amount elites, in the order of the sorted list
+     */
+    static List<Chromosome> elites(List<Chromosome> sorted, int amount, boolean fromEnd) {
+        final List<Chromosome> elites = new ArrayList<>(Math.max(0, amount));
+        for (int r = 0; r < sorted.size() && elites.size() < amount; r++) {
+            final Chromosome chromosome = sorted.get(fromEnd ? sorted.size() - 1 - r : r);
+            if (!chromosome.isFitnessBound()) elites.add(chromosome);
+        }
+        if (fromEnd) Collections.reverse(elites);
+        return elites;
+    }
+
+    /**
+     * @return new list of the cumulative rank chances, see {@link RankSelection} for the cached primitive version
+     */
     public static List<Double> getRankSelectionList(List<Chromosome> chromosomeList, double s) {
         /*
            n = ngenes
@@ -592,25 +1006,28 @@ public abstract class Population<E extends Number> {
 
 
     public static FunctionalEvolutionInterface evolveToMaxAnd10x10Replicate() {
-        return (chromosomeList, crossoverInterface, selectionInterface, mutationInterface, elitismRate, crossoverRate, mutationRate) -> {
-            List<Chromosome> nextGeneration = new ArrayList<>();
+        return (chromosomeList, crossoverInterface, selectionInterface, mutationInterface, fitnessBatchInterface, elitismRate, crossoverRate, mutationRate) -> {
+            final MatingPool mating = new MatingPool(selectionInterface, chromosomeList, (int) (crossoverRate * chromosomeList.size() / 2) + 1);
+            List<Chromosome> nextGeneration = new ArrayList<>(chromosomeList.size());
+            final List<Chromosome> parents = new ArrayList<>(2);
+            final List<Chromosome> temp = new ArrayList<>(1);
             int i = 0;
             if (elitismRate > 0) {
-                i = (int) (elitismRate * chromosomeList.size());
-                chromosomeList.subList(chromosomeList.size() - i, chromosomeList.size()).forEach((c) -> nextGeneration.add(c));
+                nextGeneration.addAll(elites(chromosomeList, (int) (elitismRate * chromosomeList.size()), true));
+                i = nextGeneration.size();
             }
             int max = (int) (chromosomeList.size() * crossoverRate);
             while (i < max) {
                 //if (ThreadLocalRandom.current().nextFloat() <= crossoverRate) { //crossover?
-                List<Chromosome> parents = new ArrayList<>();
-                parents.add(chromosomeList.get(selectionInterface.select(chromosomeList)));
-                parents.add(chromosomeList.get(selectionInterface.select(chromosomeList)));
+                parents.clear();
+                parents.add(chromosomeList.get(mating.next()));
+                parents.add(chromosomeList.get(mating.next()));
 
                 List<Chromosome> children = crossoverInterface.crossover(parents);
                 for (Chromosome c : children) { //add children if there is enough space in new population array
                     if (i < max) {
                         if (mutationRate > 0) {
-                            List<Chromosome> temp = new ArrayList<>();
+                            temp.clear();
                             temp.add(c);
                             nextGeneration.add(mutationInterface.mutate(temp, mutationRate).get(0));
                         } else {
@@ -624,19 +1041,19 @@ public abstract class Population<E extends Number> {
             }
             while (nextGeneration.size() < chromosomeList.size()) {
                 if (mutationRate > 0) {
-                    List<Chromosome> temp = new ArrayList<>();
+                    temp.clear();
                     temp.add(chromosomeList.get(ThreadLocalRandom.current().nextInt(chromosomeList.size())));
                     nextGeneration.add(mutationInterface.mutate(temp, mutationRate).get(0));
                 } else {
                     nextGeneration.add(chromosomeList.get(ThreadLocalRandom.current().nextInt(chromosomeList.size())));
                 }
             }
+            fitnessBatchInterface.evaluate(nextGeneration);
             List<Chromosome> nextGenerationReplicated = new ArrayList<>();
-            Collections.sort(nextGeneration);
-            Collections.reverse(nextGeneration);
-            for (int j = 0; j < nextGeneration.size() / 10; j++) {
+            final int[] best = FitnessIndex.of(nextGeneration).best(nextGeneration.size() / 10, true);
+            for (int j = 0; j < best.length; j++) {
                 for (int k = 0; k < 10; k++) {
-                    nextGenerationReplicated.add(nextGeneration.get(j));
+                    nextGenerationReplicated.add(nextGeneration.get(best[j]));
                 }
             }
             return (nextGenerationReplicated);
@@ -654,8 +1071,8 @@ public abstract class Population<E extends Number> {
      */
     protected List<Chromosome> selectParents() {
         List<Chromosome> parents = new ArrayList<>();
-        parents.add(getChromosomeList().get(selectionInterface.select(getChromosomeList())));
-        parents.add(getChromosomeList().get(selectionInterface.select(getChromosomeList())));
+        parents.add(chromosomeList.get(selectionInterface.select(chromosomeList)));
+        parents.add(chromosomeList.get(selectionInterface.select(chromosomeList)));
 
         return parents;
     }
@@ -681,10 +1098,96 @@ public abstract class Population<E extends Number> {
 
     public List<Double> getAllFitnessValue() {
         List<Double> fitnessValues = new ArrayList<>();
-        for (Chromosome c : chromosomeList) {
-            fitnessValues.add(c.getFitness());
+        for (double fitness : getFitnessArray()) {
+            fitnessValues.add(fitness);
         }
         return fitnessValues;
     }
 
+    /**
+     * Returns the fitness values as array. In arena mode this is the fitness array of the storage, otherwise a new array.
+     *
+     * @return fitness values
+     */
+    public double[] getFitnessArray() {
+        if (storage != null) {
+            return storage.getFitness();
+        }
+        double[] fitness = new double[chromosomeList.size()];
+        for (int i = 0; i < fitness.length; i++) {
+            fitness[i] = chromosomeList.get(i).getFitness();
+        }
+        return fitness;
+    }
+
+    /**
+     * Moves the population into a {@link PopulationArena}.
+     * From then on evolve() evolves the arena directly instead of calling the evolutionInterface,
+     * and the chromosomeList is the unmodifiable list of views on the rows.
+     * The arena runs elitism, crossover and mutation only and evaluates the new rows itself, without the fitnessBatchInterface.
+     * That is what evolveToMax() and evolveToMin() do, so only populations evolved by one of them can use an arena,
+     * replicating evolutions like evolveToMaxAnd10x10Replicate() can't.
+     * Throws {@link IllegalStateException} if the chromosomes are no {@link IntChromosome} objects,
+     * crossover and mutation are no FunctionalIntCrossoverInterface and FunctionalIntMutationInterface,
+     * or the evolutionInterface is not evolveToMax() for maximize, evolveToMin() otherwise.
+     *
+     * @param maximize true if higher fitness is better, used for elitism
+     * @throws IllegalStateException
+     */
+    public void useArena(boolean maximize) throws IllegalStateException {
+        if (!(crossoverInterface instanceof FunctionalIntCrossoverInterface) || !(mutationInterface instanceof FunctionalIntMutationInterface)) {
+            throw new IllegalStateException("Arena mode needs a FunctionalIntCrossoverInterface and a FunctionalIntMutationInterface.");
+        }
+        if (evolutionInterface != (maximize ? EVOLVE_TO_MAX : EVOLVE_TO_MIN)) {
+            throw new IllegalStateException("Arena mode only runs " + (maximize ? "evolveToMax()" : "evolveToMin()") + ", the evolutionInterface would be skipped.");
+        }
+        try {
+            this.storage = new PopulationArena(chromosomeList, maximize);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+        this.chromosomeList = storage.getChromosomeList();
+        trackGeneration();
+    }
+
+    /**
+     * @return the arena, or null if the population is not in arena mode or stored off-heap.
+     */
+    public PopulationArena getArena() {
+        return storage instanceof PopulationArena ? (PopulationArena) storage : null;
+    }
+
+    /**
+     * @return the storage evolved by evolve(), or null if the population is a plain chromosomeList.
+     */
+    public PopulationStorage getStorage() {
+        return storage;
+    }
+
+    /**
+     * Read-only list of the rows of one storage generation, see getChromosomeListSnapshot().
+     * Views on the rows are copied on get(), rows the storage detaches itself are returned as they are.
+     */
+    private class RowSnapshot extends AbstractList<Chromosome> implements RandomAccess {
+        private final int generation;
+
+        RowSnapshot(int generation) {
+            this.generation = generation;
+        }
+
+        @Override
+        public Chromosome get(int index) {
+            if (generation != storageGeneration) {
+                throw new IllegalStateException("The snapshot is out of date, the population evolved.");
+            }
+            final Chromosome row = chromosomeList.get(index);
+            return storage.hasRowViews() ? HallOfFame.snapshot(row) : row;
+        }
+
+        @Override
+        public int size() {
+            return populationSize;
+        }
+    }
+
 }
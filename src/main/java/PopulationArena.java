@@ -0,0 +1,276 @@
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Structure of arrays storage for a population of {@link IntChromosome} objects.
+ * All genes live in one int matrix of populationSize x geneLength (row major), all fitness values in one double array.
+ * The chromosomes are flyweight views on their row, they hold no gene and no fitness themselves.
+ * Row r of the matrix belongs to the chromosome at index r of getChromosomeList().
+ *
+ * The arena is double buffered: a second matrix and fitness array receive the next generation,
+ * then the buffers are swapped. Views, buffers and scratch arrays are allocated once,
+ * so evolve() allocates nothing as long as selection, crossover, mutation and fitness calculation allocate nothing.
+ *
+ * The views always show the current generation, a list handed out before evolve() shows the next generation afterwards.
+ */
+public class PopulationArena implements PopulationStorage {
+    private final int populationSize;
+    private final int geneLength;
+    private final boolean maximize;
+    private final IntChromosome[] chromosomes;
+    private final List<Chromosome> chromosomeList;
+    private final IntChromosome cursor;
+    private final int[] bestRows;
+    private final int[] spareChild;
+    private final MatingPool mating;
+    private int[] genes;
+    private double[] fitness;
+    private int[] nextGenes;
+    private double[] nextFitness;
+
+    /**
+     * Copies the genes and fitness values of the chromosomes into a new arena, and creates a new view for every row.
+     * The chromosomes of the list are not changed, the list may hold one chromosome several times.
+     * Throws {@link IllegalArgumentException} if not all chromosomes are {@link IntChromosome} objects of the same gene length.
+     *
+     * @param chromosomeList chromosomes of the first generation
+     * @param maximize       true if higher fitness is better, false if lower fitness is better
+     */
+    public PopulationArena(List<Chromosome> chromosomeList, boolean maximize) throws IllegalArgumentException {
+        if (chromosomeList.isEmpty() || !(chromosomeList.get(0) instanceof IntChromosome)) {
+            throw new IllegalArgumentException("PopulationArena needs a list of IntChromosome objects.");
+        }
+        this.populationSize = chromosomeList.size();
+        this.geneLength = ((IntChromosome) chromosomeList.get(0)).getGeneLength();
+        this.maximize = maximize;
+        this.genes = new int[populationSize * geneLength];
+        this.fitness = new double[populationSize];
+        this.nextGenes = new int[populationSize * geneLength];
+        this.nextFitness = new double[populationSize];
+        this.bestRows = new int[populationSize];
+        this.spareChild = new int[geneLength];
+        this.mating = new MatingPool(populationSize / 2 + 1);
+        this.chromosomes = new IntChromosome[populationSize];
+
+        for (int row = 0; row < populationSize; row++) {
+            if (!(chromosomeList.get(row) instanceof IntChromosome)
+                    || ((IntChromosome) chromosomeList.get(row)).getGeneLength() != geneLength) {
+                throw new IllegalArgumentException("PopulationArena needs IntChromosome objects of the same gene length.");
+            }
+            IntChromosome chromosome = (IntChromosome) chromosomeList.get(row);
+            System.arraycopy(chromosome.getIntGene(), chromosome.getGeneOffset(), genes, row * geneLength, geneLength);
+            fitness[row] = chromosome.getFitness();
+            chromosomes[row] = (IntChromosome) chromosome.createChild(chromosome.copyGene());
+            chromosomes[row].attach(this, row);
+        }
+        IntChromosome first = (IntChromosome) chromosomeList.get(0);
+        this.cursor = (IntChromosome) first.createChild(first.copyGene());
+        this.chromosomeList = Collections.unmodifiableList(Arrays.asList(chromosomes));
+    }
+
+    @Override
+    public int getPopulationSize() {
+        return populationSize;
+    }
+
+    public int getGeneLength() {
+        return geneLength;
+    }
+
+    @Override
+    public boolean isMaximize() {
+        return maximize;
+    }
+
+    /**
+     * @return Reference to the gene matrix. Row r starts at index r * geneLength.
+     */
+    public int[] getGenes() {
+        return genes;
+    }
+
+    /**
+     * @return Reference to the fitness array. Index r holds the fitness of row r.
+     */
+    @Override
+    public double[] getFitness() {
+        return fitness;
+    }
+
+    /**
+     * @param row index of the row
+     * @return view on the row
+     */
+    public IntChromosome getChromosome(int row) {
+        return chromosomes[row];
+    }
+
+    /**
+     * Unmodifiable list of the views in row order, so indexes returned by a {@link FunctionalSelectionInterface} are rows.
+     *
+     * @return list of views
+     */
+    @Override
+    public List<Chromosome> getChromosomeList() {
+        return chromosomeList;
+    }
+
+    @Override
+    public boolean hasRowViews() {
+        return true;
+    }
+
+    /**
+     * Evolves the arena one generation.
+     * The best rows (based on elitismRate) are copied to the next generation first.
+     * The rest is filled with children written by the crossover directly into their rows,
+     * or with copies of random rows, if no crossover happens. Every new row is mutated in place and evaluated.
+     * Then the buffers are swapped and the views are moved to the new matrix.
+     *
+     * @param selectionInterface selection of the parent rows
+     * @param crossoverInterface crossover writing into the rows of the next generation
+     * @param mutationInterface  mutation working in place on a row
+     * @param elitismRate        rate of rows copied unchanged
+     * @param crossoverRate      chance of a crossover
+     * @param mutationRate       passed to the mutation
+     */
+    @Override
+    public void evolve(
+            FunctionalSelectionInterface selectionInterface,
+            FunctionalIntCrossoverInterface crossoverInterface,
+            FunctionalIntMutationInterface mutationInterface,
+            double elitismRate,
+            double crossoverRate,
+            double mutationRate
+    ) {
+        final int[] nextGenes = this.nextGenes;
+        final double[] nextFitness = this.nextFitness;
+        final int elites = (int) (elitismRate * populationSize);
+        int i = 0;
+
+        selectBestRows(elites);
+        for (int e = 0; e < elites; e++) {
+            final int row = bestRows[e];
+            System.arraycopy(genes, row * geneLength, nextGenes, i * geneLength, geneLength);
+            nextFitness[i++] = fitness[row];
+        }
+        mating.reset(selectionInterface, chromosomeList, fitness, populationSize, (int) (crossoverRate * (populationSize - elites) / 2) + 1);
+        while (i < populationSize) {
+            if (ThreadLocalRandom.current().nextFloat() <= crossoverRate) {
+                final IntChromosome first = chromosomes[mating.next()];
+                final IntChromosome second = chromosomes[mating.next()];
+                if (i + 1 < populationSize) {
+                    crossoverInterface.crossover(first, second, nextGenes, i * geneLength, nextGenes, (i + 1) * geneLength);
+                    nextFitness[i] = mutateAndEvaluate(mutationInterface, mutationRate, nextGenes, i++);
+                    nextFitness[i] = mutateAndEvaluate(mutationInterface, mutationRate, nextGenes, i++);
+                } else { //only space for the first child
+                    crossoverInterface.crossover(first, second, nextGenes, i * geneLength, spareChild, 0);
+                    nextFitness[i] = mutateAndEvaluate(mutationInterface, mutationRate, nextGenes, i++);
+                }
+            } else {
+                final int row = ThreadLocalRandom.current().nextInt(populationSize);
+                System.arraycopy(genes, row * geneLength, nextGenes, i * geneLength, geneLength);
+                nextFitness[i] = mutationRate > 0
+                        ? mutateAndEvaluate(mutationInterface, mutationRate, nextGenes, i)
+                        : fitness[row];
+                i++;
+            }
+        }
+
+        this.nextGenes = genes;
+        this.nextFitness = fitness;
+        this.genes = nextGenes;
+        this.fitness = nextFitness;
+        for (int row = 0; row < populationSize; row++) {
+            chromosomes[row].attach(this, row);
+        }
+    }
+
+    /**
+     * Mutates row i of the matrix in place and evaluates it with the cursor chromosome.
+     *
+     * @return fitness of the row
+     */
+    private double mutateAndEvaluate(FunctionalIntMutationInterface mutationInterface, double mutationRate, int[] matrix, int row) {
+        mutationInterface.mutate(matrix, row * geneLength, geneLength, mutationRate);
+        cursor.setGene(matrix, row * geneLength, geneLength);
+        return cursor.calculateFitness();
+    }
+
+    /**
+     * Gets the rows of the amount best fitness values, best first.
+     *
+     * @param amount amount of rows
+     * @return new array of row indexes
+     */
+    @Override
+    public int[] getBestRows(int amount) {
+        selectBestRows(amount);
+        return Arrays.copyOf(bestRows, amount);
+    }
+
+    private void selectBestRows(int amount) {
+        selectBestRows(fitness, populationSize, maximize, bestRows, amount);
+    }
+
+    /**
+     * Writes the rows of the amount best fitness values into rows, best first.
+     * Keeps the worst of the current best rows at the root of a heap in rows, O(n log amount), no allocation.
+     *
+     * @param fitness  fitness values, index r holds the fitness of row r
+     * @param size     amount of rows
+     * @param maximize true if higher fitness is better
+     * @param rows     array receiving the rows, at least amount long
+     * @param amount   amount of rows
+     */
+    static void selectBestRows(double[] fitness, int size, boolean maximize, int[] rows, int amount) {
+        if (amount <= 0) return;
+        for (int row = 0; row < size; row++) {
+            if (row < amount) {
+                rows[row] = row;
+                siftUp(fitness, maximize, rows, row);
+            } else if (isBetter(fitness, maximize, row, rows[0])) {
+                rows[0] = row;
+                siftDown(fitness, maximize, rows, 0, amount);
+            }
+        }
+        for (int end = amount - 1; end > 0; end--) { //heap sort, the worst row goes to the end
+            int temp = rows[0];
+            rows[0] = rows[end];
+            rows[end] = temp;
+            siftDown(fitness, maximize, rows, 0, end);
+        }
+    }
+
+    private static boolean isBetter(double[] fitness, boolean maximize, int row, int other) {
+        return maximize ? fitness[row] > fitness[other] : fitness[row] < fitness[other];
+    }
+
+    private static void siftUp(double[] fitness, boolean maximize, int[] rows, int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!isBetter(fitness, maximize, rows[parent], rows[i])) break;
+            int temp = rows[parent];
+            rows[parent] = rows[i];
+            rows[i] = temp;
+            i = parent;
+        }
+    }
+
+    private static void siftDown(double[] fitness, boolean maximize, int[] rows, int i, int size) {
+        while (true) {
+            int worst = i;
+            int left = 2 * i + 1;
+            int right = left + 1;
+            if (left < size && isBetter(fitness, maximize, rows[worst], rows[left])) worst = left;
+            if (right < size && isBetter(fitness, maximize, rows[worst], rows[right])) worst = right;
+            if (worst == i) return;
+            int temp = rows[worst];
+            rows[worst] = rows[i];
+            rows[i] = temp;
+            i = worst;
+        }
+    }
+}
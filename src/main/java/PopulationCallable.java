@@ -7,12 +7,12 @@ import java.util.concurrent.atomic.DoubleAccumulator;
  * Created by yay on 09.11.2016.
  */
 public class PopulationCallable implements Callable<Double> {
-    private Population population;
+    private Population<?> population;
     private int maxGenerations;
     private double maxFitness;
 
 
-    public PopulationCallable(Population population, int maxGenerations, double maxFitness) {
+    public PopulationCallable(Population<?> population, int maxGenerations, double maxFitness) {
         this.population = population;
         this.maxGenerations = maxGenerations;
         this.maxFitness = maxFitness;
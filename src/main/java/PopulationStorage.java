@@ -0,0 +1,53 @@
+import java.util.List;
+
+/**
+ * Storage of a population outside of a plain {@code List<Chromosome>}, evolved by {@link Population#evolve()}.
+ * Rows are the indexes of getChromosomeList(), the fitness of row r is at index r of getFitness().
+ */
+public interface PopulationStorage {
+
+    int getPopulationSize();
+
+    boolean isMaximize();
+
+    /**
+     * @return Reference to the fitness array of the current generation.
+     */
+    double[] getFitness();
+
+    /**
+     * @return unmodifiable list of the chromosomes in row order.
+     */
+    List<Chromosome> getChromosomeList();
+
+    /**
+     * @return true if getChromosomeList() holds views on the rows, which show the next generation after evolve(),
+     * false if every get() returns a new chromosome detached from the storage.
+     */
+    boolean hasRowViews();
+
+    /**
+     * @param amount amount of rows
+     * @return new array with the rows of the amount best fitness values, best first.
+     */
+    int[] getBestRows(int amount);
+
+    /**
+     * Evolves the storage one generation.
+     *
+     * @param selectionInterface selection of the parent rows
+     * @param crossoverInterface crossover writing the children
+     * @param mutationInterface  mutation working in place on a child
+     * @param elitismRate        rate of rows copied unchanged
+     * @param crossoverRate      chance of a crossover
+     * @param mutationRate       passed to the mutation
+     */
+    void evolve(
+            FunctionalSelectionInterface selectionInterface,
+            FunctionalIntCrossoverInterface crossoverInterface,
+            FunctionalIntMutationInterface mutationInterface,
+            double elitismRate,
+            double crossoverRate,
+            double mutationRate
+    );
+}
@@ -0,0 +1,292 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Evaluation stage that calculates the fitness in a pool of local worker processes,
+ * for fitness functions that can not run inside this JVM. See {@link ProcessFitnessWorker} for a worker in Java.
+ *
+ * The unevaluated chromosomes of a generation are split into chunks, every worker process takes chunks until none are left.
+ * A chunk is sent to the stdin of a worker and answered on its stdout, both big-endian:
+ * request: int count, byte kind (see GenerationHistory), int gene length, count genes;
+ * a gene is packed into longs for bits, ints for IntChromosome genes and doubles for everything else.
+ * response: count doubles, the fitness values in request order.
+ * The stderr of the workers is passed through. A worker exits when its stdin is closed.
+ *
+ * A worker that crashes or breaks the protocol is restarted and the chunk is sent again, up to MAX_ATTEMPTS times.
+ *
+ * cancel(), or an interrupt of the thread in evaluate(), abandons the running generation: the busy workers are killed,
+ * evaluate() waits for the driver threads and gives the chromosomes still unevaluated the penalty fitness
+ * with setEstimatedFitness(), so they are neither cached nor evaluated lazily in this JVM.
+ * The workers are restarted with the next generation.
+ */
+public class ProcessFitnessEvaluation implements FunctionalFitnessBatchInterface, Closeable {
+    public static final int MAX_ATTEMPTS = 3;
+    private static final int CHUNKS_PER_WORKER = 4;
+
+    private final List<String> command;
+    private final Worker[] workers;
+    private final ExecutorService drivers;
+    private final double penaltyFitness;
+    private volatile AtomicBoolean current;
+
+    /**
+     * Starts the worker processes.
+     *
+     * @param command        command line of a worker process
+     * @param workerCount    amount of worker processes
+     * @param penaltyFitness fitness of the chromosomes of a cancelled generation
+     * @throws IOException if a worker can not be started
+     */
+    public ProcessFitnessEvaluation(List<String> command, int workerCount, double penaltyFitness) throws IOException {
+        if (workerCount < 1) {
+            throw new IllegalArgumentException("At least one worker is needed.");
+        }
+        this.command = new ArrayList<>(command);
+        this.penaltyFitness = penaltyFitness;
+        this.workers = new Worker[workerCount];
+        for (int i = 0; i < workerCount; i++) {
+            workers[i] = new Worker();
+        }
+        this.drivers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            final Thread thread = new Thread(runnable, "fitness-worker-driver");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Command line of a {@link ProcessFitnessWorker} on the classpath of this JVM, i.e. with BitChromosomeGenerator.
+     * The worker calculates the fitness from the gene alone, static state of this JVM is not shared:
+     * SalesmanPath workers for example would score against their own cities, not the ones of SalesmanPopulation.setCities().
+     *
+     * @param generatorClass name of a FunctionalChromosomeGenerator class with a public no argument constructor
+     * @return command line
+     */
+    public static List<String> javaWorkerCommand(String generatorClass) {
+        return Arrays.asList(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java",
+                "-cp", System.getProperty("java.class.path"), ProcessFitnessWorker.class.getName(), generatorClass);
+    }
+
+    @Override
+    public void evaluate(List<Chromosome> chromosomeList) {
+        final List<Chromosome> unevaluated = new ArrayList<>(chromosomeList.size());
+        for (Chromosome chromosome : chromosomeList) {
+            if (!chromosome.isEvaluated()) unevaluated.add(chromosome);
+        }
+        if (unevaluated.isEmpty()) return;
+
+        final int chunkSize = Math.max(1, unevaluated.size() / (workers.length * CHUNKS_PER_WORKER));
+        final ConcurrentLinkedQueue<List<Chromosome>> chunks = new ConcurrentLinkedQueue<>();
+        for (int from = 0; from < unevaluated.size(); from += chunkSize) {
+            chunks.add(unevaluated.subList(from, Math.min(unevaluated.size(), from + chunkSize)));
+        }
+        final AtomicBoolean cancelled = new AtomicBoolean();
+        current = cancelled;
+        final List<Future<?>> drivers = new ArrayList<>(workers.length);
+        for (Worker worker : workers) {
+            drivers.add(this.drivers.submit(() -> {
+                List<Chromosome> chunk;
+                while (!cancelled.get() && (chunk = chunks.poll()) != null) {
+                    worker.evaluate(chunk, cancelled);
+                }
+                return null;
+            }));
+        }
+        try {
+            for (Future<?> driver : drivers) {
+                driver.get();
+            }
+        } catch (InterruptedException e) { //the generation is abandoned
+            cancel(cancelled);
+            join(drivers);
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            cancel(cancelled);
+            join(drivers);
+            throw new IllegalStateException("Worker evaluation failed.", e.getCause());
+        } finally {
+            current = null;
+        }
+        for (Chromosome chromosome : unevaluated) {
+            if (!chromosome.isEvaluated()) chromosome.setEstimatedFitness(penaltyFitness);
+        }
+    }
+
+    /**
+     * Cancels the running generation, its unevaluated chromosomes get the penalty fitness.
+     * Can be called from any thread, the thread in evaluate() returns once the drivers stopped.
+     */
+    @Override
+    public void cancel() {
+        final AtomicBoolean cancelled = current;
+        if (cancelled != null) cancel(cancelled);
+    }
+
+    private void cancel(AtomicBoolean cancelled) {
+        if (!cancelled.compareAndSet(false, true)) return;
+        for (Worker worker : workers) {
+            worker.stop(); //a driver waiting for the worker gets an IOException
+        }
+    }
+
+    /**
+     * Waits for the drivers of a cancelled generation, so none of them sets a fitness after evaluate() returned.
+     */
+    private static void join(List<Future<?>> drivers) {
+        boolean interrupted = false;
+        for (Future<?> driver : drivers) {
+            while (true) {
+                try {
+                    driver.get();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    break; //failed after the cancel, its chromosomes get the penalty
+                }
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+
+    /**
+     * Stops the worker processes.
+     */
+    @Override
+    public void close() {
+        drivers.shutdownNow();
+        for (Worker worker : workers) {
+            worker.stop();
+        }
+    }
+
+    /**
+     * Writes the gene of a chromosome in the format of its kind.
+     */
+    static void writeGene(DataOutputStream out, byte kind, Chromosome chromosome) throws IOException {
+        switch (kind) {
+            case GenerationHistory.BITS:
+                for (long word : ((GeneChromosome) chromosome).getBitGene().getWords()) {
+                    out.writeLong(word);
+                }
+                break;
+            case GenerationHistory.INTS:
+                final IntChromosome ints = (IntChromosome) chromosome;
+                for (int i = 0; i < ints.getGeneLength(); i++) out.writeInt(ints.getAllele(i));
+                break;
+            case GenerationHistory.DOUBLES:
+                final DoubleChromosome doubles = (DoubleChromosome) chromosome;
+                for (int i = 0; i < doubles.getGeneLength(); i++) out.writeDouble(doubles.getAllele(i));
+                break;
+            default:
+                for (Number allele : chromosome.getGene()) out.writeDouble(allele.doubleValue());
+        }
+    }
+
+    static int geneLength(byte kind, Chromosome chromosome) {
+        switch (kind) {
+            case GenerationHistory.BITS:
+                return ((GeneChromosome) chromosome).getBitGene().getLength();
+            case GenerationHistory.INTS:
+                return ((IntChromosome) chromosome).getGeneLength();
+            case GenerationHistory.DOUBLES:
+                return ((DoubleChromosome) chromosome).getGeneLength();
+            default:
+                return chromosome.getGene().size();
+        }
+    }
+
+    /**
+     * One worker process, used by one driver thread at a time.
+     */
+    private class Worker {
+        private Process process;
+        private DataOutputStream toWorker;
+        private DataInputStream fromWorker;
+
+        Worker() throws IOException {
+            start();
+        }
+
+        private synchronized void start() throws IOException {
+            process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+            toWorker = new DataOutputStream(new BufferedOutputStream(process.getOutputStream()));
+            fromWorker = new DataInputStream(new BufferedInputStream(process.getInputStream()));
+        }
+
+        /**
+         * Evaluates the chunk, unless the generation is cancelled, then the chunk is left unevaluated.
+         */
+        void evaluate(List<Chromosome> chunk, AtomicBoolean cancelled) throws IOException {
+            final double[] fitness = new double[chunk.size()];
+            synchronized (this) {
+                if (cancelled.get()) return;
+                if (process == null) start(); //gave up on the previous chunk or was stopped by cancel()
+            }
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    exchange(chunk, fitness);
+                    break;
+                } catch (IOException e) {
+                    stop();
+                    if (cancelled.get()) return;
+                    if (attempt == MAX_ATTEMPTS) throw e;
+                    Population.getLOGGER().warning("Fitness worker failed, restarting it: " + e);
+                    start();
+                }
+            }
+            for (int i = 0; i < fitness.length; i++) {
+                chunk.get(i).setFitness(fitness[i]);
+            }
+        }
+
+        private void exchange(List<Chromosome> chunk, double[] fitness) throws IOException {
+            final DataOutputStream toWorker;
+            final DataInputStream fromWorker;
+            synchronized (this) {
+                if (process == null) throw new IOException("Worker stopped.");
+                toWorker = this.toWorker;
+                fromWorker = this.fromWorker;
+            }
+            final byte kind = GenerationHistory.kindOf(chunk.get(0));
+            toWorker.writeInt(chunk.size());
+            toWorker.writeByte(kind);
+            toWorker.writeInt(geneLength(kind, chunk.get(0)));
+            for (Chromosome chromosome : chunk) {
+                writeGene(toWorker, kind, chromosome);
+            }
+            toWorker.flush();
+            for (int i = 0; i < fitness.length; i++) {
+                fitness[i] = fromWorker.readDouble(); //EOFException if the worker died
+            }
+        }
+
+        /**
+         * Stops the process, can be called by any thread.
+         */
+        synchronized void stop() {
+            if (process == null) return;
+            process.destroyForcibly(); //first, it unblocks a driver waiting on the pipes
+            try {
+                toWorker.close();
+            } catch (IOException ignored) {
+                //the worker is gone already
+            }
+            process = null;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Worker process of a {@link ProcessFitnessEvaluation}, answering chunks of genes on stdin with their fitness on stdout.
+ * The genes are turned into chromosomes with createChild() of a chromosome of the generator,
+ * so any chromosome class of this suite can be evaluated out of process.
+ *
+ * Usage: java ProcessFitnessWorker generatorClass
+ * where generatorClass is a FunctionalChromosomeGenerator with a public no argument constructor.
+ * System.out is redirected to stderr, stdout carries only the protocol.
+ */
+public class ProcessFitnessWorker {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length != 1) {
+            System.err.println("Usage: java ProcessFitnessWorker generatorClass");
+            System.exit(2);
+        }
+        final FunctionalChromosomeGenerator<?> generator = (FunctionalChromosomeGenerator<?>) Class.forName(args[0]).getDeclaredConstructor().newInstance();
+        final OutputStream stdout = new FileOutputStream(FileDescriptor.out);
+        System.setOut(new PrintStream(new FileOutputStream(FileDescriptor.err), true));
+        serve(System.in, stdout, generator.generateRandomChromosome());
+    }
+
+    /**
+     * Answers requests until the input is closed.
+     *
+     * @param input     requests
+     * @param output    responses
+     * @param prototype chromosome the evaluated chromosomes are created from
+     * @throws IOException
+     */
+    public static void serve(InputStream input, OutputStream output, Chromosome prototype) throws IOException {
+        final DataInputStream in = new DataInputStream(new BufferedInputStream(input));
+        final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(output));
+        while (true) {
+            final int count;
+            try {
+                count = in.readInt();
+            } catch (EOFException e) {
+                return;
+            }
+            final byte kind = in.readByte();
+            final int geneLength = in.readInt();
+            for (int c = 0; c < count; c++) {
+                out.writeDouble(readChromosome(in, kind, geneLength, prototype).getFitness());
+            }
+            out.flush();
+        }
+    }
+
+    private static Chromosome readChromosome(DataInputStream in, byte kind, int geneLength, Chromosome prototype) throws IOException {
+        switch (kind) {
+            case GenerationHistory.BITS:
+                final long[] words = new long[(geneLength + 63) >>> 6];
+                for (int w = 0; w < words.length; w++) words[w] = in.readLong();
+                final Gene gene = new Gene(geneLength);
+                for (int i = 0; i < geneLength; i++) {
+                    if ((words[i >>> 6] >>> (i & 63) & 1) != 0) gene.set(i, true);
+                }
+                return ((GeneChromosome) prototype).createChild(gene);
+            case GenerationHistory.INTS:
+                final int[] ints = new int[geneLength];
+                for (int i = 0; i < geneLength; i++) ints[i] = in.readInt();
+                return ((IntChromosome) prototype).createChild(ints);
+            case GenerationHistory.DOUBLES:
+                final double[] doubles = new double[geneLength];
+                for (int i = 0; i < geneLength; i++) doubles[i] = in.readDouble();
+                return ((DoubleChromosome) prototype).createChild(doubles);
+            default:
+                final List<Number> numbers = new ArrayList<>(geneLength);
+                for (int i = 0; i < geneLength; i++) numbers.add(in.readDouble());
+                return prototype.createChild(numbers);
+        }
+    }
+}
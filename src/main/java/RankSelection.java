@@ -0,0 +1,108 @@
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Linear rank based selection with selection pressure s, 1 to 2.
+ * Rank r, 0 the worst, is selected with chance ((2 - s) / n) + ((2 * r * (s - 1)) / (n * (n - 1))).
+ * The cumulative chances only depend on n and s, they are kept as a double[] for the last n
+ * and searched binary, O(log n) a selection.
+ *
+ * select() takes the position as rank, for lists and arrays sorted ascending by fitness like the chromosome list of a population.
+ * forGeneration() on a fitness array ranks it first, so unsorted arrays like the ones of the arenas work too.
+ */
+public class RankSelection implements FunctionalFitnessSelectionInterface {
+    private final double s;
+    private volatile double[] cumulative = new double[0];
+
+    /**
+     * Created with Population.rankBasedSelectMax(s).
+     *
+     * @param s selection pressure, 1 to 2
+     */
+    RankSelection(double s) {
+        if (s < 1 || s > 2) {
+            throw new IllegalArgumentException("The selection pressure s has to be in [1, 2].");
+        }
+        this.s = s;
+    }
+
+    /**
+     * @param size amount of ranks
+     * @return cumulative chances of the ranks, cached for the last size
+     */
+    double[] cumulative(int size) {
+        double[] cumulative = this.cumulative;
+        if (cumulative.length != size) {
+            cumulative = new double[size];
+            double cumulativeChance = 0;
+            for (int r = 0; r < size; r++) {
+                cumulativeChance += size == 1 ? 1 : ((2 - s) / size) + ((2 * r * (s - 1)) / ((double) size * (size - 1)));
+                cumulative[r] = cumulativeChance;
+            }
+            if (size > 0) cumulative[size - 1] = 1; //no rounding gap at the top
+            this.cumulative = cumulative;
+        }
+        return cumulative;
+    }
+
+    /**
+     * @return a random rank below size, drawn by binary search in the cumulative chances
+     */
+    int drawRank(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Nothing to select from.");
+        }
+        final double[] cumulative = cumulative(size);
+        final double select = ThreadLocalRandom.current().nextDouble();
+        int low = 0;
+        int high = size - 1;
+        while (low < high) { //first rank with cumulative chance >= select
+            final int middle = (low + high) >>> 1;
+            if (cumulative[middle] < select) low = middle + 1;
+            else high = middle;
+        }
+        return low;
+    }
+
+    @Override
+    public int select(double[] fitness, int size) {
+        return drawRank(size);
+    }
+
+    @Override
+    public int select(List<Chromosome> chromosomeList) {
+        return drawRank(chromosomeList.size());
+    }
+
+    /**
+     * The chromosome list of a population is sorted ascending already, the position is the rank.
+     */
+    @Override
+    public FunctionalSelectionInterface forGeneration(List<Chromosome> chromosomeList) {
+        return this;
+    }
+
+    /**
+     * Ranks the fitness values, ascending, and selects the index of a drawn rank.
+     */
+    @Override
+    public FunctionalFitnessSelectionInterface forGeneration(double[] fitness, int size) {
+        final int[] indexOfRank = new FitnessIndex(fitness, size).ascending();
+        return new FunctionalFitnessSelectionInterface() {
+            @Override
+            public int select(double[] ignored, int ignoredSize) {
+                return indexOfRank[drawRank(size)];
+            }
+
+            @Override
+            public int select(List<Chromosome> chromosomeList) {
+                return indexOfRank[drawRank(size)];
+            }
+
+            @Override
+            public FunctionalFitnessSelectionInterface forGeneration(double[] fitness, int size) {
+                return RankSelection.this.forGeneration(fitness, size);
+            }
+        };
+    }
+}
@@ -0,0 +1,195 @@
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Fitness proportional (roulette wheel) selection.
+ * The fitness values are scaled to non negative weights, a Vose alias table is built over them once per generation
+ * in forGeneration(), O(n), and every select() on it is O(1).
+ * Called without forGeneration() a select() builds the table for that one call.
+ */
+public class RouletteSelection implements FunctionalFitnessSelectionInterface {
+
+    /**
+     * Turns fitness values into selection weights. Minimized fitness is negated first, so higher is always better.
+     */
+    public enum Scaling {
+        /**
+         * The fitness is the weight, negative values count as 0. Only for maximized, non negative fitness.
+         */
+        NONE {
+            @Override
+            void scale(double[] fitness, int size, double[] weights) {
+                for (int i = 0; i < size; i++) {
+                    weights[i] = Math.max(0, fitness[i]);
+                }
+            }
+        },
+        /**
+         * Weight is the distance to the worst fitness of the generation, the worst is never selected.
+         */
+        WINDOWING {
+            @Override
+            void scale(double[] fitness, int size, double[] weights) {
+                double worst = Double.POSITIVE_INFINITY;
+                for (int i = 0; i < size; i++) worst = Math.min(worst, fitness[i]);
+                for (int i = 0; i < size; i++) {
+                    weights[i] = fitness[i] - worst;
+                }
+            }
+        },
+        /**
+         * Sigma truncation: weight is 1 + (f - mean) / (2 * standard deviation), at least 0.
+         */
+        SIGMA {
+            @Override
+            void scale(double[] fitness, int size, double[] weights) {
+                double mean = 0;
+                for (int i = 0; i < size; i++) mean += fitness[i];
+                mean /= size;
+                double variance = 0;
+                for (int i = 0; i < size; i++) variance += (fitness[i] - mean) * (fitness[i] - mean);
+                final double sigma = Math.sqrt(variance / size);
+                for (int i = 0; i < size; i++) {
+                    weights[i] = sigma == 0 ? 1 : Math.max(0, 1 + (fitness[i] - mean) / (2 * sigma));
+                }
+            }
+        },
+        /**
+         * Linear scaling of the windowed fitness: the mean keeps its weight, the best gets LINEAR_PRESSURE times it.
+         * If the worst would get a negative weight, the windowed fitness is used as it is.
+         */
+        LINEAR {
+            @Override
+            void scale(double[] fitness, int size, double[] weights) {
+                WINDOWING.scale(fitness, size, weights);
+                double mean = 0;
+                double best = 0;
+                for (int i = 0; i < size; i++) {
+                    mean += weights[i];
+                    best = Math.max(best, weights[i]);
+                }
+                mean /= size;
+                if (best == mean) return; //all equal, windowing gave 0 everywhere
+                double a = (LINEAR_PRESSURE - 1) * mean / (best - mean);
+                double b = mean * (1 - a);
+                if (b < 0) { //the worst, weight 0, would get a negative weight
+                    a = 1;
+                    b = 0;
+                }
+                for (int i = 0; i < size; i++) {
+                    weights[i] = a * weights[i] + b;
+                }
+            }
+        };
+
+        abstract void scale(double[] fitness, int size, double[] weights);
+    }
+
+    public static final double LINEAR_PRESSURE = 2;
+
+    private final boolean maximize;
+    private final Scaling scaling;
+
+    /**
+     * Created with Population.rouletteSelect().
+     *
+     * @param maximize true if a higher fitness is better
+     * @param scaling  scaling of the fitness values to weights
+     */
+    RouletteSelection(boolean maximize, Scaling scaling) {
+        if (!maximize && scaling == Scaling.NONE) {
+            throw new IllegalArgumentException("Minimized fitness needs a scaling.");
+        }
+        this.maximize = maximize;
+        this.scaling = scaling;
+    }
+
+    @Override
+    public int select(double[] fitness, int size) {
+        return forGeneration(fitness, size).select(fitness, size);
+    }
+
+    @Override
+    public FunctionalFitnessSelectionInterface forGeneration(double[] fitness, int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Nothing to select from.");
+        }
+        return new AliasTable(weights(fitness, size, maximize, scaling));
+    }
+
+    /**
+     * @return new array of the scaled weights of the fitness values
+     */
+    static double[] weights(double[] fitness, int size, boolean maximize, Scaling scaling) {
+        final double[] weights = new double[size];
+        if (maximize) {
+            scaling.scale(fitness, size, weights);
+        } else {
+            final double[] negated = new double[size];
+            for (int i = 0; i < size; i++) negated[i] = -fitness[i];
+            scaling.scale(negated, size, weights);
+        }
+        return weights;
+    }
+
+    /**
+     * Vose's alias method: column i is taken with probability probability[i], else its alias.
+     */
+    private class AliasTable implements FunctionalFitnessSelectionInterface {
+        private final double[] probability;
+        private final int[] alias;
+
+        AliasTable(double[] weights) {
+            final int n = weights.length;
+            probability = new double[n];
+            alias = new int[n];
+            double sum = 0;
+            for (double weight : weights) sum += weight;
+            //scaled in place so the mean is 1, uniform if every weight is 0
+            final double[] scaled = weights;
+            for (int i = 0; i < n; i++) {
+                scaled[i] = sum > 0 ? scaled[i] * n / sum : 1;
+            }
+            final int[] small = new int[n];
+            final int[] large = new int[n];
+            int smalls = 0;
+            int larges = 0;
+            for (int i = 0; i < n; i++) {
+                if (scaled[i] < 1) small[smalls++] = i;
+                else large[larges++] = i;
+            }
+            while (smalls > 0 && larges > 0) {
+                final int less = small[--smalls];
+                final int more = large[--larges];
+                probability[less] = scaled[less];
+                alias[less] = more;
+                scaled[more] = scaled[more] + scaled[less] - 1;
+                if (scaled[more] < 1) small[smalls++] = more;
+                else large[larges++] = more;
+            }
+            while (larges > 0) probability[large[--larges]] = 1;
+            while (smalls > 0) probability[small[--smalls]] = 1; //rounding leftovers
+        }
+
+        @Override
+        public int select(List<Chromosome> chromosomeList) {
+            return spin();
+        }
+
+        @Override
+        public int select(double[] fitness, int size) {
+            return spin();
+        }
+
+        private int spin() {
+            final ThreadLocalRandom random = ThreadLocalRandom.current();
+            final int column = random.nextInt(probability.length);
+            return random.nextDouble() < probability[column] ? column : alias[column];
+        }
+
+        @Override
+        public FunctionalFitnessSelectionInterface forGeneration(double[] fitness, int size) {
+            return RouletteSelection.this.forGeneration(fitness, size);
+        }
+    }
+}
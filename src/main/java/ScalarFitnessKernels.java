@@ -0,0 +1,56 @@
+/**
+ * Plain loop implementations of the {@link FitnessKernels}, used on every JDK without the Vector API.
+ */
+final class ScalarFitnessKernels {
+
+    private ScalarFitnessKernels() {
+    }
+
+    static int popcount(long[] words) {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    static int hammingDistance(long[] first, long[] second) {
+        int count = 0;
+        for (int i = 0; i < first.length; i++) {
+            count += Long.bitCount(first[i] ^ second[i]);
+        }
+        return count;
+    }
+
+    static void maskedCrossover(long[] first, long[] second, long[] mask, long[] firstChild, long[] secondChild) {
+        for (int i = 0; i < first.length; i++) {
+            final long diff = (first[i] ^ second[i]) & mask[i];
+            firstChild[i] = first[i] ^ diff;
+            secondChild[i] = second[i] ^ diff;
+        }
+    }
+
+    static double weightedSum(double[] gene, int offset, double[] weights) {
+        double sum = 0;
+        for (int i = 0; i < weights.length; i++) {
+            sum += gene[offset + i] * weights[i];
+        }
+        return sum;
+    }
+
+    static double sphere(double[] gene, int offset, int length) {
+        double sum = 0;
+        for (int i = offset; i < offset + length; i++) {
+            sum += gene[i] * gene[i];
+        }
+        return sum;
+    }
+
+    static double rastrigin(double[] gene, int offset, int length) {
+        double sum = 10.0 * length;
+        for (int i = offset; i < offset + length; i++) {
+            sum += gene[i] * gene[i] - 10 * Math.cos(2 * Math.PI * gene[i]);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,72 @@
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Stochastic universal sampling: all parents of a generation are picked with one spin of a wheel with evenly spaced pointers,
+ * O(n + parents). Every chromosome is picked within one of its expected amount of times, unlike with independent roulette spins.
+ * The weights are scaled like the ones of a {@link RouletteSelection}. The parents are shuffled before they are paired.
+ * A single select() spins a wheel with one pointer.
+ */
+public class StochasticUniversalSampling implements FunctionalFitnessSelectionInterface {
+    private final boolean maximize;
+    private final RouletteSelection.Scaling scaling;
+
+    /**
+     * Created with Population.stochasticUniversalSampling().
+     *
+     * @param maximize true if a higher fitness is better
+     * @param scaling  scaling of the fitness values to weights
+     */
+    StochasticUniversalSampling(boolean maximize, RouletteSelection.Scaling scaling) {
+        if (!maximize && scaling == RouletteSelection.Scaling.NONE) {
+            throw new IllegalArgumentException("Minimized fitness needs a scaling.");
+        }
+        this.maximize = maximize;
+        this.scaling = scaling;
+    }
+
+    @Override
+    public int select(double[] fitness, int size) {
+        final int[] picked = new int[1];
+        sample(fitness, size, picked, 1);
+        return picked[0];
+    }
+
+    @Override
+    public void selectParents(double[] fitness, int size, int[] parents, int pairs) {
+        sample(fitness, size, parents, 2 * pairs);
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 2 * pairs - 1; i > 0; i--) {
+            final int j = random.nextInt(i + 1);
+            final int swap = parents[i];
+            parents[i] = parents[j];
+            parents[j] = swap;
+        }
+    }
+
+    /**
+     * Writes amount indexes in ascending order into picked, picked by evenly spaced pointers.
+     */
+    private void sample(double[] fitness, int size, int[] picked, int amount) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Nothing to select from.");
+        }
+        final double[] weights = RouletteSelection.weights(fitness, size, maximize, scaling);
+        double sum = 0;
+        for (double weight : weights) sum += weight;
+        if (sum <= 0) { //every weight is 0, select uniformly
+            for (int p = 0; p < amount; p++) picked[p] = ThreadLocalRandom.current().nextInt(size);
+            return;
+        }
+        final double spacing = sum / amount;
+        double pointer = ThreadLocalRandom.current().nextDouble() * spacing;
+        double cumulative = weights[0];
+        int i = 0;
+        for (int p = 0; p < amount; p++) {
+            while (pointer >= cumulative && i < size - 1) {
+                cumulative += weights[++i];
+            }
+            picked[p] = i;
+            pointer += spacing;
+        }
+    }
+}
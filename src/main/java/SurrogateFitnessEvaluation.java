@@ -0,0 +1,188 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Evaluation stage that pre-screens a generation with a cheap model of the fitness function.
+ * Every truly evaluated chromosome is added to an archive of (gene vector, fitness) samples, the oldest are dropped.
+ * The fitness of a new chromosome is predicted from its k nearest samples, weighted by inverse distance.
+ * Only the most promising fraction of the unevaluated chromosomes is passed on to the true evaluation.
+ * The others keep their predicted fitness, clamped so none ranks above a truly evaluated one of the same batch.
+ * It is set with Chromosome.setEstimatedFitness(), so it is not cached, derived from or kept as elite.
+ * Until the archive holds enough samples every chromosome is evaluated.
+ *
+ * The gene vector is the alleles as doubles, bits as 0 and 1. That suits genes where near values mean near fitness,
+ * not permutations.
+ */
+public class SurrogateFitnessEvaluation implements FunctionalFitnessBatchInterface {
+    public static final int DEFAULT_NEIGHBOURS = 5;
+    public static final int DEFAULT_ARCHIVE_SIZE = 1024;
+
+    private final FunctionalFitnessBatchInterface evaluation;
+    private final boolean maximize;
+    private final double evaluatedFraction;
+    private final int neighbours;
+    private final double[][] features;
+    private final double[] fitness;
+    private int samples;
+    private int next;
+    private long trueEvaluations;
+    private long estimates;
+
+    /**
+     * Created with Population.surrogateEvaluation().
+     *
+     * @param evaluation        true evaluation of the promising chromosomes
+     * @param maximize          true if a higher fitness is better
+     * @param evaluatedFraction fraction of the unevaluated chromosomes that is truly evaluated, 0 to 1
+     * @param neighbours        amount of samples a prediction is made from
+     * @param archiveSize       maximum amount of samples
+     */
+    SurrogateFitnessEvaluation(FunctionalFitnessBatchInterface evaluation, boolean maximize, double evaluatedFraction, int neighbours, int archiveSize) {
+        if (evaluatedFraction <= 0 || evaluatedFraction > 1 || neighbours < 1 || archiveSize < neighbours) {
+            throw new IllegalArgumentException("evaluatedFraction has to be in (0, 1], the archive has to hold at least the neighbours.");
+        }
+        this.evaluation = evaluation;
+        this.maximize = maximize;
+        this.evaluatedFraction = evaluatedFraction;
+        this.neighbours = neighbours;
+        this.features = new double[archiveSize][];
+        this.fitness = new double[archiveSize];
+    }
+
+    @Override
+    public synchronized void evaluate(List<Chromosome> chromosomeList) {
+        final List<Chromosome> unevaluated = new ArrayList<>();
+        for (Chromosome chromosome : chromosomeList) {
+            if (!chromosome.isEvaluated()) unevaluated.add(chromosome);
+        }
+        if (unevaluated.isEmpty()) return;
+
+        if (samples < Math.max(neighbours, unevaluated.size() / 2)) { //too few samples for a model yet
+            evaluateTruly(unevaluated);
+            return;
+        }
+
+        final int amount = unevaluated.size();
+        final double[][] vectors = new double[amount][];
+        final double[] predictions = new double[amount];
+        final Integer[] order = new Integer[amount];
+        for (int i = 0; i < amount; i++) {
+            vectors[i] = featuresOf(unevaluated.get(i));
+            predictions[i] = predict(vectors[i]);
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> maximize ? Double.compare(predictions[b], predictions[a]) : Double.compare(predictions[a], predictions[b]));
+
+        final int promising = Math.max(1, (int) Math.ceil(amount * evaluatedFraction));
+        final List<Chromosome> evaluated = new ArrayList<>(promising);
+        for (int i = 0; i < promising; i++) {
+            evaluated.add(unevaluated.get(order[i]));
+        }
+        evaluateTruly(evaluated);
+
+        double worstTrue = evaluated.get(0).getFitness();
+        for (Chromosome chromosome : evaluated) {
+            worstTrue = maximize ? Math.min(worstTrue, chromosome.getFitness()) : Math.max(worstTrue, chromosome.getFitness());
+        }
+        for (int i = promising; i < amount; i++) {
+            final double prediction = predictions[order[i]];
+            unevaluated.get(order[i]).setEstimatedFitness(maximize ? Math.min(prediction, worstTrue) : Math.max(prediction, worstTrue));
+        }
+        estimates += amount - promising;
+    }
+
+    @Override
+    public void cancel() {
+        evaluation.cancel();
+    }
+
+    private void evaluateTruly(List<Chromosome> chromosomes) {
+        evaluation.evaluate(chromosomes);
+        for (Chromosome chromosome : chromosomes) {
+            if (chromosome.isFitnessBound()) continue; //not the true fitness
+            features[next] = featuresOf(chromosome);
+            fitness[next] = chromosome.getFitness();
+            next = next + 1 == features.length ? 0 : next + 1;
+            samples = Math.min(samples + 1, features.length);
+        }
+        trueEvaluations += chromosomes.size();
+    }
+
+    /**
+     * Inverse distance weighted mean of the fitness of the k nearest samples. An identical sample is returned directly.
+     */
+    private double predict(double[] vector) {
+        final int k = Math.min(neighbours, samples);
+        final double[] nearestDistances = new double[k];
+        final int[] nearest = new int[k];
+        int found = 0;
+        for (int s = 0; s < samples; s++) {
+            final double distance = squaredDistance(vector, features[s]);
+            if (found == k && distance >= nearestDistances[k - 1]) continue;
+            int i = found == k ? k - 1 : found++;
+            while (i > 0 && nearestDistances[i - 1] > distance) {
+                nearestDistances[i] = nearestDistances[i - 1];
+                nearest[i] = nearest[i - 1];
+                i--;
+            }
+            nearestDistances[i] = distance;
+            nearest[i] = s;
+        }
+        if (nearestDistances[0] == 0) return fitness[nearest[0]];
+        double weightedSum = 0;
+        double weights = 0;
+        for (int i = 0; i < found; i++) {
+            final double weight = 1 / Math.sqrt(nearestDistances[i]);
+            weightedSum += weight * fitness[nearest[i]];
+            weights += weight;
+        }
+        return weightedSum / weights;
+    }
+
+    private static double squaredDistance(double[] a, double[] b) {
+        if (a.length != b.length) return Double.MAX_VALUE;
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            final double d = a[i] - b[i];
+            sum += d * d;
+        }
+        return sum;
+    }
+
+    private static double[] featuresOf(Chromosome chromosome) {
+        if (chromosome instanceof IntChromosome) {
+            final IntChromosome c = (IntChromosome) chromosome;
+            final double[] vector = new double[c.getGeneLength()];
+            for (int i = 0; i < vector.length; i++) vector[i] = c.getAllele(i);
+            return vector;
+        }
+        if (chromosome instanceof DoubleChromosome) {
+            return ((DoubleChromosome) chromosome).copyGene();
+        }
+        if (chromosome instanceof GeneChromosome) {
+            final Gene gene = ((GeneChromosome) chromosome).getBitGene();
+            final double[] vector = new double[gene.getLength()];
+            for (int i = 0; i < vector.length; i++) vector[i] = gene.get(i) ? 1 : 0;
+            return vector;
+        }
+        final List<Number> gene = chromosome.getGene();
+        final double[] vector = new double[gene.size()];
+        for (int i = 0; i < vector.length; i++) vector[i] = gene.get(i).doubleValue();
+        return vector;
+    }
+
+    /**
+     * @return amount of chromosomes passed on to the true evaluation
+     */
+    public synchronized long getTrueEvaluations() {
+        return trueEvaluations;
+    }
+
+    /**
+     * @return amount of chromosomes that got a predicted fitness
+     */
+    public synchronized long getEstimates() {
+        return estimates;
+    }
+}
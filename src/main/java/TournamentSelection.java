@@ -0,0 +1,94 @@
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Tournament selection: tournamentSize distinct candidates are drawn, the fittest of them wins.
+ * The candidates are drawn with Floyd's algorithm into a per thread scratch array,
+ * so a selection is O(tournamentSize) and does not allocate.
+ */
+public class TournamentSelection implements FunctionalFitnessSelectionInterface {
+    private final boolean maximize;
+    private final int tournamentSize;
+    private final ThreadLocal<int[]> candidates;
+
+    /**
+     * Created with Population.tournamentSelectMax() and Population.tournamentSelectMin().
+     *
+     * @param maximize       true if the highest fitness wins
+     * @param tournamentSize amount of candidates, at most the population size is used
+     */
+    TournamentSelection(boolean maximize, int tournamentSize) {
+        if (tournamentSize < 1) {
+            throw new IllegalArgumentException("A tournament needs at least one candidate.");
+        }
+        this.maximize = maximize;
+        this.tournamentSize = tournamentSize;
+        this.candidates = ThreadLocal.withInitial(() -> new int[tournamentSize]);
+    }
+
+    @Override
+    public int select(double[] fitness, int size) {
+        final int[] candidates = draw(size);
+        final int k = Math.min(tournamentSize, size);
+        int winner = candidates[0];
+        for (int c = 1; c < k; c++) {
+            final int candidate = candidates[c];
+            if (maximize ? fitness[candidate] > fitness[winner] : fitness[candidate] < fitness[winner]) winner = candidate;
+        }
+        return winner;
+    }
+
+    /**
+     * Reads the fitness of the candidates only, instead of copying the fitness of the whole list.
+     */
+    @Override
+    public int select(List<Chromosome> chromosomeList) {
+        final int size = chromosomeList.size();
+        final int[] candidates = draw(size);
+        final int k = Math.min(tournamentSize, size);
+        int winner = candidates[0];
+        double best = chromosomeList.get(winner).getFitness();
+        for (int c = 1; c < k; c++) {
+            final double fitness = chromosomeList.get(candidates[c]).getFitness();
+            if (maximize ? fitness > best : fitness < best) {
+                winner = candidates[c];
+                best = fitness;
+            }
+        }
+        return winner;
+    }
+
+    /**
+     * A tournament needs no table over the generation.
+     */
+    @Override
+    public FunctionalSelectionInterface forGeneration(List<Chromosome> chromosomeList) {
+        return this;
+    }
+
+    /**
+     * Floyd's algorithm: min(tournamentSize, size) distinct indexes below size, in the scratch array of this thread.
+     */
+    private int[] draw(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Nothing to select from.");
+        }
+        final int[] candidates = this.candidates.get();
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        final int k = Math.min(tournamentSize, size);
+        int drawn = 0;
+        for (int j = size - k; j < size; j++) {
+            final int t = random.nextInt(j + 1);
+            candidates[drawn] = contains(candidates, drawn, t) ? j : t;
+            drawn++;
+        }
+        return candidates;
+    }
+
+    private static boolean contains(int[] array, int length, int value) {
+        for (int i = 0; i < length; i++) {
+            if (array[i] == value) return true;
+        }
+        return false;
+    }
+}
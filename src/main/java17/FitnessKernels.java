@@ -0,0 +1,68 @@
+/**
+ * Hot loops of bit and real valued fitness functions and operators, Java 17 version of the multi-release jar.
+ * Uses the Vector API if the module jdk.incubator.vector is loaded (--add-modules jdk.incubator.vector),
+ * otherwise the plain loops of the Java 8 version. The vectorized sums may differ from the plain ones in the last bits.
+ */
+public final class FitnessKernels {
+    private static final boolean VECTORIZED = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+    private FitnessKernels() {
+    }
+
+    /**
+     * @return true if the Vector API implementations are used.
+     */
+    public static boolean isVectorized() {
+        return VECTORIZED;
+    }
+
+    /**
+     * @param words packed bits
+     * @return amount of set bits
+     */
+    public static int popcount(long[] words) {
+        return ScalarFitnessKernels.popcount(words); //Long.bitCount is already one POPCNT per word
+    }
+
+    /**
+     * @param first  packed bits
+     * @param second packed bits, at least as many words as first
+     * @return amount of differing bits
+     */
+    public static int hammingDistance(long[] first, long[] second) {
+        return ScalarFitnessKernels.hammingDistance(first, second);
+    }
+
+    /**
+     * Uniform crossover on packed bits: where the mask is set the children get the bit of the other parent.
+     * All arrays have the length of first.
+     */
+    public static void maskedCrossover(long[] first, long[] second, long[] mask, long[] firstChild, long[] secondChild) {
+        if (VECTORIZED) {
+            VectorFitnessKernels.maskedCrossover(first, second, mask, firstChild, secondChild);
+        } else {
+            ScalarFitnessKernels.maskedCrossover(first, second, mask, firstChild, secondChild);
+        }
+    }
+
+    /**
+     * @return sum of gene[offset + i] * weights[i] over all weights
+     */
+    public static double weightedSum(double[] gene, int offset, double[] weights) {
+        return VECTORIZED ? VectorFitnessKernels.weightedSum(gene, offset, weights) : ScalarFitnessKernels.weightedSum(gene, offset, weights);
+    }
+
+    /**
+     * @return sphere function, sum of the squared alleles
+     */
+    public static double sphere(double[] gene, int offset, int length) {
+        return VECTORIZED ? VectorFitnessKernels.sphere(gene, offset, length) : ScalarFitnessKernels.sphere(gene, offset, length);
+    }
+
+    /**
+     * @return Rastrigin function, 10 * length + sum of x * x - 10 * cos(2 * pi * x)
+     */
+    public static double rastrigin(double[] gene, int offset, int length) {
+        return VECTORIZED ? VectorFitnessKernels.rastrigin(gene, offset, length) : ScalarFitnessKernels.rastrigin(gene, offset, length);
+    }
+}
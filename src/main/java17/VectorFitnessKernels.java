@@ -0,0 +1,76 @@
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Vector API implementations of the {@link FitnessKernels}, in the preferred vector width of the CPU.
+ * Only loaded if the module jdk.incubator.vector is present. The tails shorter than a vector use plain loops.
+ * There is no bit count here: a SWAR bit count in vectors is slower than Long.bitCount, which the JIT compiles
+ * to one POPCNT instruction per word.
+ */
+final class VectorFitnessKernels {
+    private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+    private static final double TWO_PI = 2 * Math.PI;
+
+    private VectorFitnessKernels() {
+    }
+
+    static void maskedCrossover(long[] first, long[] second, long[] mask, long[] firstChild, long[] secondChild) {
+        int i = 0;
+        for (final int bound = LONGS.loopBound(first.length); i < bound; i += LONGS.length()) {
+            final LongVector a = LongVector.fromArray(LONGS, first, i);
+            final LongVector b = LongVector.fromArray(LONGS, second, i);
+            final LongVector diff = a.lanewise(VectorOperators.XOR, b).and(LongVector.fromArray(LONGS, mask, i));
+            a.lanewise(VectorOperators.XOR, diff).intoArray(firstChild, i);
+            b.lanewise(VectorOperators.XOR, diff).intoArray(secondChild, i);
+        }
+        for (; i < first.length; i++) {
+            final long diff = (first[i] ^ second[i]) & mask[i];
+            firstChild[i] = first[i] ^ diff;
+            secondChild[i] = second[i] ^ diff;
+        }
+    }
+
+    static double weightedSum(double[] gene, int offset, double[] weights) {
+        DoubleVector sums = DoubleVector.zero(DOUBLES);
+        int i = 0;
+        for (final int bound = DOUBLES.loopBound(weights.length); i < bound; i += DOUBLES.length()) {
+            sums = DoubleVector.fromArray(DOUBLES, gene, offset + i).fma(DoubleVector.fromArray(DOUBLES, weights, i), sums);
+        }
+        double sum = sums.reduceLanes(VectorOperators.ADD);
+        for (; i < weights.length; i++) {
+            sum += gene[offset + i] * weights[i];
+        }
+        return sum;
+    }
+
+    static double sphere(double[] gene, int offset, int length) {
+        DoubleVector sums = DoubleVector.zero(DOUBLES);
+        int i = 0;
+        for (final int bound = DOUBLES.loopBound(length); i < bound; i += DOUBLES.length()) {
+            final DoubleVector x = DoubleVector.fromArray(DOUBLES, gene, offset + i);
+            sums = x.fma(x, sums);
+        }
+        double sum = sums.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            sum += gene[offset + i] * gene[offset + i];
+        }
+        return sum;
+    }
+
+    static double rastrigin(double[] gene, int offset, int length) {
+        DoubleVector sums = DoubleVector.zero(DOUBLES);
+        int i = 0;
+        for (final int bound = DOUBLES.loopBound(length); i < bound; i += DOUBLES.length()) {
+            final DoubleVector x = DoubleVector.fromArray(DOUBLES, gene, offset + i);
+            sums = x.fma(x, sums).sub(x.mul(TWO_PI).lanewise(VectorOperators.COS).mul(10));
+        }
+        double sum = 10.0 * length + sums.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            sum += gene[offset + i] * gene[offset + i] - 10 * Math.cos(TWO_PI * gene[offset + i]);
+        }
+        return sum;
+    }
+}